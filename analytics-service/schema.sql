@@ -128,4 +128,18 @@ CREATE TABLE IF NOT EXISTS data_quality_scores (
                                                    assessed_at DATETIME NOT NULL,
                                                    INDEX idx_dataset_id (dataset_id),
     INDEX idx_overall_score (overall_score)
-    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
\ No newline at end of file
+    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Analytics Jobs Table (persistent queue for report/prediction processing)
+CREATE TABLE IF NOT EXISTS analytics_jobs (
+                                              id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                              job_type VARCHAR(50) NOT NULL,
+    target_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    error_message TEXT,
+    created_at DATETIME NOT NULL,
+    started_at DATETIME,
+    finished_at DATETIME,
+    INDEX idx_job_status (status, id)
+    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
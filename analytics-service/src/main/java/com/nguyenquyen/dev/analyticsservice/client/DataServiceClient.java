@@ -1,5 +1,8 @@
 package com.nguyenquyen.dev.analyticsservice.client;
 
+import com.nguyenquyen.dev.analyticsservice.security.CurrentUserAuthenticationToken;
+import com.nguyenquyen.dev.analyticsservice.security.InternalClaimsAuthenticationFilter;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -7,6 +10,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 @Component
 public class DataServiceClient {
@@ -14,6 +18,9 @@ public class DataServiceClient {
     @Value("${data.service.url}")
     private String dataServiceUrl;
 
+    @Autowired
+    private DatasetInfoCache datasetCache;
+
     private final WebClient webClient;
 
     public DataServiceClient(WebClient.Builder webClientBuilder) {
@@ -29,24 +36,48 @@ public class DataServiceClient {
         return null;
     }
 
+    private String getInternalClaims() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof CurrentUserAuthenticationToken token) {
+            return token.getInternalClaims();
+        }
+        return null;
+    }
+
     public DatasetInfo getDatasetById(Long datasetId) {
         try {
             String token = getJwtToken();
-
-            WebClient.RequestHeadersSpec<?> spec = webClient.get()
-                    .uri(dataServiceUrl + "/api/datasets/" + datasetId);
-
-            if (token != null) {
-                spec = spec.header("Authorization", "Bearer " + token);
-            }
-
-            return spec.retrieve()
-                    .bodyToMono(DatasetInfo.class)
-                    .timeout(Duration.ofSeconds(5))
-                    .block();
+            String internalClaims = getInternalClaims();
+            return datasetCache.get(datasetId, id -> requestDatasetById(id, token, internalClaims)).join();
         } catch (Exception e) {
             System.err.println("Error fetching dataset: " + e.getMessage());
             throw new RuntimeException("Failed to fetch dataset info from Data Service", e);
         }
     }
+
+    public void invalidateDataset(Long datasetId) {
+        datasetCache.invalidate(datasetId);
+    }
+
+    public void invalidateAllDatasets() {
+        datasetCache.invalidateAll();
+    }
+
+    private CompletableFuture<DatasetInfo> requestDatasetById(Long datasetId, String token, String internalClaims) {
+        WebClient.RequestHeadersSpec<?> spec = webClient.get()
+                .uri(dataServiceUrl + "/api/datasets/" + datasetId);
+
+        if (token != null) {
+            spec = spec.header("Authorization", "Bearer " + token);
+        }
+        // Lets Data Service skip verifying the relayed JWT again
+        if (internalClaims != null) {
+            spec = spec.header(InternalClaimsAuthenticationFilter.INTERNAL_CLAIMS_HEADER, internalClaims);
+        }
+
+        return spec.retrieve()
+                .bodyToMono(DatasetInfo.class)
+                .timeout(Duration.ofSeconds(5))
+                .toFuture();
+    }
 }
@@ -0,0 +1,143 @@
+package com.nguyenquyen.dev.analyticsservice.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-based cache of dataset metadata fetched from Data Service.
+ * Entries hold the lookup future itself, so concurrent misses for the same
+ * dataset share a single request. Least recently used entries are evicted
+ * once max-size is reached; failed lookups are never cached.
+ */
+@Component
+public class DatasetInfoCache {
+
+    private static final String CACHE_NAME = "dataset-info";
+
+    private final long ttlNanos;
+    private final int maxSize;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    // Access-ordered for LRU eviction; guarded by itself
+    private final LinkedHashMap<Long, Entry> entries;
+
+    public DatasetInfoCache(MeterRegistry meterRegistry,
+                            @Value("${data.service.cache.ttl-seconds:300}") long ttlSeconds,
+                            @Value("${data.service.cache.max-size:10000}") int maxSize) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxSize = maxSize;
+
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > DatasetInfoCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        meterRegistry.gauge("cache.size", List.of(Tag.of("cache", CACHE_NAME)), this, DatasetInfoCache::size);
+    }
+
+    /**
+     * Returns the cached dataset, or loads it with the given loader. Only the
+     * first caller of a miss invokes the loader; the others wait on its result.
+     */
+    public CompletableFuture<DatasetInfo> get(Long datasetId,
+                                              Function<Long, CompletableFuture<DatasetInfo>> loader) {
+        long now = System.nanoTime();
+        CompletableFuture<DatasetInfo> loading;
+
+        synchronized (entries) {
+            Entry entry = entries.get(datasetId);
+            if (entry != null && now - entry.expiresAt < 0) {
+                hits.increment();
+                return entry.future.copy();
+            }
+
+            loading = new CompletableFuture<>();
+            entries.put(datasetId, new Entry(loading, now + ttlNanos));
+        }
+        misses.increment();
+
+        CompletableFuture<DatasetInfo> request;
+        try {
+            request = loader.apply(datasetId);
+        } catch (RuntimeException e) {
+            request = CompletableFuture.failedFuture(e);
+        }
+
+        request.whenComplete((info, error) -> {
+            if (error != null || info == null) {
+                discard(datasetId, loading);
+                if (error != null) {
+                    loading.completeExceptionally(error);
+                    return;
+                }
+            }
+            loading.complete(info);
+        });
+
+        return loading.copy();
+    }
+
+    public void invalidate(Long datasetId) {
+        synchronized (entries) {
+            entries.remove(datasetId);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    // Removes the entry only if it still belongs to this load
+    private void discard(Long datasetId, CompletableFuture<DatasetInfo> loading) {
+        synchronized (entries) {
+            Entry entry = entries.get(datasetId);
+            if (entry != null && entry.future == loading) {
+                entries.remove(datasetId);
+            }
+        }
+    }
+
+    private static class Entry {
+        private final CompletableFuture<DatasetInfo> future;
+        private final long expiresAt;
+
+        private Entry(CompletableFuture<DatasetInfo> future, long expiresAt) {
+            this.future = future;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.nguyenquyen.dev.analyticsservice.controller;
 
+import com.nguyenquyen.dev.analyticsservice.client.DataServiceClient;
 import com.nguyenquyen.dev.analyticsservice.dto.response.AnalyticsSummaryResponse;
 import com.nguyenquyen.dev.analyticsservice.dto.response.InsightResponse;
 import com.nguyenquyen.dev.analyticsservice.entity.AIPrediction;
@@ -11,7 +12,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -40,6 +43,9 @@ public class AdminAnalyticsController {
     @Autowired
     private DataQualityScoreRepository qualityRepository;
 
+    @Autowired
+    private DataServiceClient dataServiceClient;
+
     @GetMapping("/stats")
     public ResponseEntity<?> getAnalyticsStats() {
         try {
@@ -95,4 +101,16 @@ public class AdminAnalyticsController {
                 .createdAt(insight.getCreatedAt())
                 .build();
     }
-}
\ No newline at end of file
+
+    @DeleteMapping("/cache/datasets/{datasetId}")
+    public ResponseEntity<?> invalidateDatasetCache(@PathVariable Long datasetId) {
+        dataServiceClient.invalidateDataset(datasetId);
+        return ResponseEntity.ok(Map.of("message", "Dataset cache entry invalidated"));
+    }
+
+    @DeleteMapping("/cache/datasets")
+    public ResponseEntity<?> invalidateAllDatasetCache() {
+        dataServiceClient.invalidateAllDatasets();
+        return ResponseEntity.ok(Map.of("message", "Dataset cache cleared"));
+    }
+}
@@ -2,6 +2,7 @@ package com.nguyenquyen.dev.analyticsservice.controller;
 
 import com.nguyenquyen.dev.analyticsservice.dto.request.CreateReportRequest;
 import com.nguyenquyen.dev.analyticsservice.dto.response.AnalysisReportResponse;
+import com.nguyenquyen.dev.analyticsservice.exception.JobQueueFullException;
 import com.nguyenquyen.dev.analyticsservice.service.AnalysisReportService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +26,10 @@ public class AnalysisReportController {
         try {
             AnalysisReportResponse response = reportService.createReport(request);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (JobQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", "5")
+                    .body(Map.of("message", "Too many pending analytics jobs", "error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("message", "Failed to create report", "error", e.getMessage()));
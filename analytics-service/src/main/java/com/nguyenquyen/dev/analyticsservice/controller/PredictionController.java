@@ -2,6 +2,7 @@ package com.nguyenquyen.dev.analyticsservice.controller;
 
 import com.nguyenquyen.dev.analyticsservice.dto.request.PredictionRequest;
 import com.nguyenquyen.dev.analyticsservice.dto.response.PredictionResponse;
+import com.nguyenquyen.dev.analyticsservice.exception.JobQueueFullException;
 import com.nguyenquyen.dev.analyticsservice.repository.*;
 import com.nguyenquyen.dev.analyticsservice.service.AIPredictionService;
 import jakarta.validation.Valid;
@@ -26,6 +27,10 @@ public class PredictionController {
         try {
             PredictionResponse response = predictionService.createPrediction(request);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (JobQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", "5")
+                    .body(Map.of("message", "Too many pending analytics jobs", "error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("message", "Failed to create prediction", "error", e.getMessage()));
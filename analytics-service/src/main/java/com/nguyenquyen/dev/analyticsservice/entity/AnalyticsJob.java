@@ -0,0 +1,59 @@
+package com.nguyenquyen.dev.analyticsservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persistent queue entry for background report and prediction processing.
+ * Jobs that were QUEUED or RUNNING when the service stopped are picked up
+ * again on the next start.
+ */
+@Entity
+@Table(name = "analytics_jobs", indexes = {
+        @Index(name = "idx_job_status", columnList = "status, id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnalyticsJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // REPORT, PREDICTION
+    @Column(nullable = false, length = 50)
+    private String jobType;
+
+    // Id of the AnalysisReport / AIPrediction row the job fills in
+    @Column(nullable = false)
+    private Long targetId;
+
+    // QUEUED, RUNNING, COMPLETED, FAILED
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column
+    private LocalDateTime startedAt;
+
+    @Column
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -33,6 +33,17 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    @ExceptionHandler(JobQueueFullException.class)
+    public ResponseEntity<?> handleJobQueueFullException(JobQueueFullException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header("Retry-After", "5")
+                .body(Map.of(
+                        "timestamp", LocalDateTime.now().toString(),
+                        "status", HttpStatus.TOO_MANY_REQUESTS.value(),
+                        "message", ex.getMessage()
+                ));
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<?> handleRuntimeException(RuntimeException ex) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -0,0 +1,11 @@
+package com.nguyenquyen.dev.analyticsservice.exception;
+
+/**
+ * Thrown when the background job queue is at capacity; mapped to 429.
+ */
+public class JobQueueFullException extends RuntimeException {
+
+    public JobQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,40 @@
+package com.nguyenquyen.dev.analyticsservice.repository;
+
+import com.nguyenquyen.dev.analyticsservice.entity.AnalyticsJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface AnalyticsJobRepository extends JpaRepository<AnalyticsJob, Long> {
+
+    List<AnalyticsJob> findByStatusInOrderByIdAsc(Collection<String> statuses);
+
+    Long countByStatus(String status);
+
+    // Claims a queued job; returns 0 if another worker already took it
+    @Modifying
+    @Transactional
+    @Query("UPDATE AnalyticsJob j SET j.status = 'RUNNING', j.startedAt = :now, " +
+            "j.attempts = j.attempts + 1 WHERE j.id = :id AND j.status = 'QUEUED'")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE AnalyticsJob j SET j.status = :status, j.finishedAt = :now, " +
+            "j.errorMessage = :errorMessage WHERE j.id = :id")
+    int finish(@Param("id") Long id,
+               @Param("status") String status,
+               @Param("errorMessage") String errorMessage,
+               @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE AnalyticsJob j SET j.status = 'QUEUED' WHERE j.status = 'RUNNING'")
+    int requeueRunning();
+}
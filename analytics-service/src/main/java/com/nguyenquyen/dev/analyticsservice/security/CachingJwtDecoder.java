@@ -0,0 +1,117 @@
+package com.nguyenquyen.dev.analyticsservice.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Remembers tokens that already passed signature and claim validation, keyed
+ * by their SHA-256 digest, until they expire. A client sending the same bearer
+ * token on every request only pays for the HMAC check and JSON parsing once.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    // A full cache is swept at most this often, expired entries are removed in one pass
+    private static final Duration MIN_SWEEP_INTERVAL = Duration.ofSeconds(1);
+
+    private final JwtDecoder delegate;
+    private final int maxSize;
+    private final Map<String, Jwt> verified = new ConcurrentHashMap<>();
+
+    // No entry can have expired before this, so a full cache of live tokens is not scanned on every miss
+    private final AtomicReference<Instant> nextSweepAt = new AtomicReference<>(Instant.MIN);
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public CachingJwtDecoder(JwtDecoder delegate, int maxSize, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+        this.hits = meterRegistry.counter("security.jwt.cache.gets", "result", "hit");
+        this.misses = meterRegistry.counter("security.jwt.cache.gets", "result", "miss");
+        meterRegistry.gaugeMapSize("security.jwt.cache.size", List.of(), verified);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = digest(token);
+        Instant now = Instant.now();
+
+        Jwt cached = verified.get(key);
+        if (cached != null) {
+            if (cached.getExpiresAt().isAfter(now)) {
+                hits.increment();
+                return cached;
+            }
+            verified.remove(key, cached);
+        }
+
+        misses.increment();
+        Jwt jwt = delegate.decode(token);
+
+        // Tokens without exp are never cached, they would never leave the cache
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isAfter(now)) {
+            if (verified.size() >= maxSize) {
+                evictExpired(now);
+            }
+            if (verified.size() < maxSize) {
+                verified.put(key, jwt);
+                nextSweepAt.accumulateAndGet(jwt.getExpiresAt(), CachingJwtDecoder::earliest);
+            }
+        }
+        return jwt;
+    }
+
+    private void evictExpired(Instant now) {
+        if (now.isBefore(nextSweepAt.get())) {
+            return;
+        }
+
+        synchronized (this) {
+            if (now.isBefore(nextSweepAt.get())) {
+                return;
+            }
+
+            // Reset first: entries cached during the pass lower it again themselves
+            nextSweepAt.set(Instant.MAX);
+            Instant[] earliestLeft = {Instant.MAX};
+            verified.values().removeIf(jwt -> {
+                if (!jwt.getExpiresAt().isAfter(now)) {
+                    return true;
+                }
+                earliestLeft[0] = earliest(earliestLeft[0], jwt.getExpiresAt());
+                return false;
+            });
+
+            Instant notBefore = now.plus(MIN_SWEEP_INTERVAL);
+            Instant next = earliestLeft[0].isAfter(notBefore) ? earliestLeft[0] : notBefore;
+            nextSweepAt.accumulateAndGet(next, CachingJwtDecoder::earliest);
+        }
+    }
+
+    private static Instant earliest(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
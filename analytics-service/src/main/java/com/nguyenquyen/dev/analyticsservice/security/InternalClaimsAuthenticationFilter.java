@@ -0,0 +1,130 @@
+package com.nguyenquyen.dev.analyticsservice.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Trusted-header authentication for requests coming through the API gateway.
+ * The gateway verifies the JWT once and forwards the caller in an HMAC-signed
+ * X-Internal-Claims header; checking that signature is far cheaper than decoding
+ * and verifying the JWT again. Requests without a valid header fall through to
+ * the regular bearer token authentication.
+ */
+public class InternalClaimsAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String INTERNAL_CLAIMS_HEADER = "X-Internal-Claims";
+
+    private static final String SIGNATURE_PREFIX = "internal-claims.";
+    private static final String AUTHENTICATED_ATTRIBUTE = InternalClaimsAuthenticationFilter.class.getName() + ".AUTHENTICATED";
+
+    private final SecretKeySpec internalKey;
+    private final BearerTokenResolver bearerTokenResolver = new DefaultBearerTokenResolver();
+
+    public InternalClaimsAuthenticationFilter(String internalSecret) {
+        this.internalKey = new SecretKeySpec(internalSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    /**
+     * Bearer token resolver that skips JWT decoding once the request has been
+     * authenticated from the internal claims header.
+     */
+    public BearerTokenResolver bearerTokenResolver() {
+        return request -> request.getAttribute(AUTHENTICATED_ATTRIBUTE) != null
+                ? null
+                : bearerTokenResolver.resolve(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(INTERNAL_CLAIMS_HEADER);
+        Jwt jwt = header != null ? toJwt(header, resolveBearerToken(request)) : null;
+
+        if (jwt != null) {
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(new CurrentUserAuthenticationToken(
+                    jwt, List.of(new SimpleGrantedAuthority(jwt.getClaimAsString("role"))), header));
+            SecurityContextHolder.setContext(context);
+            request.setAttribute(AUTHENTICATED_ATTRIBUTE, Boolean.TRUE);
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Rebuilds the caller's claims from a verified header. The bearer token, when
+     * present, is kept as the token value so it can still be relayed to other services.
+     */
+    private Jwt toJwt(String header, String bearerToken) {
+        int dot = header.indexOf('.');
+        if (dot <= 0 || !validSignature(header.substring(0, dot), header.substring(dot + 1))) {
+            return null;
+        }
+
+        try {
+            String payload = new String(Base64.getUrlDecoder().decode(header.substring(0, dot)), StandardCharsets.UTF_8);
+            String[] fields = payload.split("\n", -1);
+            if (fields.length != 5) {
+                return null;
+            }
+
+            Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(fields[2]));
+            if (!expiresAt.isAfter(Instant.now())) {
+                return null;
+            }
+
+            Jwt.Builder jwt = Jwt.withTokenValue(bearerToken != null ? bearerToken : header)
+                    .header("alg", "HS256")
+                    .subject(fields[3])
+                    .expiresAt(expiresAt)
+                    .claim("userId", Long.parseLong(fields[0]))
+                    .claim("role", fields[1])
+                    .claim("email", fields[3]);
+            if (!fields[4].isEmpty()) {
+                jwt.claim("fullName", fields[4]);
+            }
+            return jwt.build();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private String resolveBearerToken(HttpServletRequest request) {
+        try {
+            return bearerTokenResolver.resolve(request);
+        } catch (OAuth2AuthenticationException e) {
+            return null;
+        }
+    }
+
+    private boolean validSignature(String payload, String signature) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(internalKey);
+            byte[] expected = mac.doFinal((SIGNATURE_PREFIX + payload).getBytes(StandardCharsets.UTF_8));
+            return MessageDigest.isEqual(expected, Base64.getUrlDecoder().decode(signature));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -4,79 +4,52 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
-
 @Component
 public class UserContextHolder {
 
-    public static Long getCurrentUserId() {
+    /**
+     * The caller of the current request, or null when it is not authenticated.
+     * Prefer reading this once over calling the individual getters repeatedly.
+     */
+    public static CurrentUser current() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return null;
-        }
-
-        if (authentication.getPrincipal() instanceof org.springframework.security.oauth2.jwt.Jwt) {
-            org.springframework.security.oauth2.jwt.Jwt jwt = (org.springframework.security.oauth2.jwt.Jwt) authentication.getPrincipal();
-            Object userIdClaim = jwt.getClaim("userId");
-            if (userIdClaim != null) {
-                if (userIdClaim instanceof Long) {
-                    return (Long) userIdClaim;
-                } else if (userIdClaim instanceof Integer) {
-                    return ((Integer) userIdClaim).longValue();
-                } else if (userIdClaim instanceof String) {
-                    return Long.parseLong((String) userIdClaim);
-                }
-            }
+        if (authentication instanceof CurrentUserAuthenticationToken token && token.isAuthenticated()) {
+            return token.getCurrentUser();
         }
         return null;
     }
 
-    public static String getCurrentUserEmail() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return null;
+    public static CurrentUser requireCurrent() {
+        CurrentUser user = current();
+        if (user == null) {
+            throw new RuntimeException("User not authenticated");
         }
+        return user;
+    }
 
-        if (authentication.getPrincipal() instanceof org.springframework.security.oauth2.jwt.Jwt) {
-            org.springframework.security.oauth2.jwt.Jwt jwt = (org.springframework.security.oauth2.jwt.Jwt) authentication.getPrincipal();
-            String email = jwt.getClaim("email");
-            if (email != null) return email;
-            return jwt.getSubject();
-        }
+    public static Long getCurrentUserId() {
+        CurrentUser user = current();
+        return user != null ? user.userId() : null;
+    }
 
-        return authentication.getName();
+    public static String getCurrentUserEmail() {
+        CurrentUser user = current();
+        return user != null ? user.email() : null;
     }
 
     public static String getCurrentUserRole() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return null;
-        }
-
-        if (authentication.getPrincipal() instanceof org.springframework.security.oauth2.jwt.Jwt) {
-            org.springframework.security.oauth2.jwt.Jwt jwt = (org.springframework.security.oauth2.jwt.Jwt) authentication.getPrincipal();
-            return jwt.getClaim("role");
-        }
-        return null;
+        CurrentUser user = current();
+        return user != null ? user.role() : null;
     }
 
     public static String getCurrentUserFullName() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return null;
-        }
-
-        if (authentication.getPrincipal() instanceof org.springframework.security.oauth2.jwt.Jwt) {
-            org.springframework.security.oauth2.jwt.Jwt jwt = (org.springframework.security.oauth2.jwt.Jwt) authentication.getPrincipal();
-            String fullName = jwt.getClaim("fullName");
-            return fullName != null ? fullName : "Unknown User";
-        }
-        return "Unknown User";
+        CurrentUser user = current();
+        return user != null ? user.fullName() : "Unknown User";
     }
 
     public static boolean hasRole(String role) {
-        String currentRole = getCurrentUserRole();
-        return currentRole != null && currentRole.equals(role);
+        CurrentUser user = current();
+        return user != null && user.hasRole(role);
     }
 
     public static boolean isAdmin() {
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nguyenquyen.dev.analyticsservice.dto.request.PredictionRequest;
 import com.nguyenquyen.dev.analyticsservice.dto.response.PredictionResponse;
 import com.nguyenquyen.dev.analyticsservice.entity.AIPrediction;
+import com.nguyenquyen.dev.analyticsservice.exception.JobQueueFullException;
 import com.nguyenquyen.dev.analyticsservice.repository.AIPredictionRepository;
 import com.nguyenquyen.dev.analyticsservice.security.UserContextHolder;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,11 +12,12 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
-public class AIPredictionService {
+public class AIPredictionService implements AnalyticsJobHandler {
+
+    private static final String JOB_TYPE = "PREDICTION";
 
     @Autowired
     private AIPredictionRepository predictionRepository;
@@ -23,6 +25,9 @@ public class AIPredictionService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private AnalyticsJobExecutor jobExecutor;
+
     public PredictionResponse createPrediction(PredictionRequest request) {
         Long userId = UserContextHolder.getCurrentUserId();
 
@@ -49,31 +54,55 @@ public class AIPredictionService {
 
         prediction = predictionRepository.save(prediction);
 
-        processPredictionAsync(prediction, request.getInputData());
+        try {
+            jobExecutor.submit(JOB_TYPE, prediction.getId());
+        } catch (JobQueueFullException e) {
+            predictionRepository.delete(prediction);
+            throw e;
+        }
 
         return mapToResponse(prediction);
     }
 
-    private void processPredictionAsync(AIPrediction prediction, Map<String, Object> inputData) {
-        CompletableFuture.runAsync(() -> {
-            try {
-                Thread.sleep(1500);
-
-                Map<String, Object> result = generatePrediction(
-                        prediction.getPredictionType(), inputData);
-                double confidence = calculateConfidence(result);
-
-                prediction.setPredictionResult(objectMapper.writeValueAsString(result));
-                prediction.setConfidenceScore(confidence);
-                prediction.setStatus("COMPLETED");
-                prediction.setCompletedAt(LocalDateTime.now());
-
-                predictionRepository.save(prediction);
-            } catch (Exception e) {
-                prediction.setStatus("FAILED");
-                prediction.setErrorMessage(e.getMessage());
-                predictionRepository.save(prediction);
-            }
+    @Override
+    public String getJobType() {
+        return JOB_TYPE;
+    }
+
+    @Override
+    public int getDefaultConcurrency() {
+        return 4;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void execute(Long predictionId) throws Exception {
+        AIPrediction prediction = predictionRepository.findById(predictionId)
+                .orElseThrow(() -> new RuntimeException("Prediction not found"));
+
+        Map<String, Object> inputData = prediction.getInputData() != null ?
+                objectMapper.readValue(prediction.getInputData(), Map.class) : null;
+
+        Thread.sleep(1500);
+
+        Map<String, Object> result = generatePrediction(
+                prediction.getPredictionType(), inputData);
+        double confidence = calculateConfidence(result);
+
+        prediction.setPredictionResult(objectMapper.writeValueAsString(result));
+        prediction.setConfidenceScore(confidence);
+        prediction.setStatus("COMPLETED");
+        prediction.setCompletedAt(LocalDateTime.now());
+
+        predictionRepository.save(prediction);
+    }
+
+    @Override
+    public void markFailed(Long predictionId, String errorMessage) {
+        predictionRepository.findById(predictionId).ifPresent(prediction -> {
+            prediction.setStatus("FAILED");
+            prediction.setErrorMessage(errorMessage);
+            predictionRepository.save(prediction);
         });
     }
 
@@ -6,17 +6,20 @@ import com.nguyenquyen.dev.analyticsservice.client.DatasetInfo;
 import com.nguyenquyen.dev.analyticsservice.dto.request.CreateReportRequest;
 import com.nguyenquyen.dev.analyticsservice.dto.response.AnalysisReportResponse;
 import com.nguyenquyen.dev.analyticsservice.entity.AnalysisReport;
+import com.nguyenquyen.dev.analyticsservice.exception.JobQueueFullException;
 import com.nguyenquyen.dev.analyticsservice.repository.AnalysisReportRepository;
+import com.nguyenquyen.dev.analyticsservice.security.CurrentUser;
 import com.nguyenquyen.dev.analyticsservice.security.UserContextHolder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 @Service
-public class AnalysisReportService {
+public class AnalysisReportService implements AnalyticsJobHandler {
+
+    private static final String JOB_TYPE = "REPORT";
 
     @Autowired
     private AnalysisReportRepository reportRepository;
@@ -27,10 +30,14 @@ public class AnalysisReportService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private AnalyticsJobExecutor jobExecutor;
+
     public AnalysisReportResponse createReport(CreateReportRequest request) {
-        Long userId = UserContextHolder.getCurrentUserId();
-        String userEmail = UserContextHolder.getCurrentUserEmail();
-        String userName = UserContextHolder.getCurrentUserFullName();
+        CurrentUser currentUser = UserContextHolder.requireCurrent();
+        Long userId = currentUser.userId();
+        String userEmail = currentUser.email();
+        String userName = currentUser.fullName();
 
         DatasetInfo dataset = dataServiceClient.getDatasetById(request.getDatasetId());
         if (dataset == null) {
@@ -60,31 +67,55 @@ public class AnalysisReportService {
 
         report = reportRepository.save(report);
 
-        processReportAsync(report, request.getParameters());
+        try {
+            jobExecutor.submit(JOB_TYPE, report.getId());
+        } catch (JobQueueFullException e) {
+            reportRepository.delete(report);
+            throw e;
+        }
 
         return mapToResponse(report);
     }
 
-    private void processReportAsync(AnalysisReport report, Map<String, Object> parameters) {
-        CompletableFuture.runAsync(() -> {
-            try {
-                Thread.sleep(2000);
-
-                Map<String, Object> results = generateReportResults(report.getReportType(), parameters);
-                List<Map<String, Object>> charts = generateCharts(report.getReportType(), results);
-                List<Map<String, Object>> insights = generateInsights(results);
-
-                report.setResults(objectMapper.writeValueAsString(results));
-                report.setCharts(objectMapper.writeValueAsString(charts));
-                report.setInsights(objectMapper.writeValueAsString(insights));
-                report.setStatus("COMPLETED");
-                report.setCompletedAt(LocalDateTime.now());
-
-                reportRepository.save(report);
-            } catch (Exception e) {
-                report.setStatus("FAILED");
-                reportRepository.save(report);
-            }
+    @Override
+    public String getJobType() {
+        return JOB_TYPE;
+    }
+
+    @Override
+    public int getDefaultConcurrency() {
+        return 6;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void execute(Long reportId) throws Exception {
+        AnalysisReport report = reportRepository.findById(reportId)
+                .orElseThrow(() -> new RuntimeException("Report not found"));
+
+        Map<String, Object> parameters = report.getParameters() != null ?
+                objectMapper.readValue(report.getParameters(), Map.class) : null;
+
+        Thread.sleep(2000);
+
+        Map<String, Object> results = generateReportResults(report.getReportType(), parameters);
+        List<Map<String, Object>> charts = generateCharts(report.getReportType(), results);
+        List<Map<String, Object>> insights = generateInsights(results);
+
+        report.setResults(objectMapper.writeValueAsString(results));
+        report.setCharts(objectMapper.writeValueAsString(charts));
+        report.setInsights(objectMapper.writeValueAsString(insights));
+        report.setStatus("COMPLETED");
+        report.setCompletedAt(LocalDateTime.now());
+
+        reportRepository.save(report);
+    }
+
+    @Override
+    public void markFailed(Long reportId, String errorMessage) {
+        reportRepository.findById(reportId).ifPresent(report -> {
+            report.setStatus("FAILED");
+            reportRepository.save(report);
         });
     }
 
@@ -0,0 +1,260 @@
+package com.nguyenquyen.dev.analyticsservice.service;
+
+import com.nguyenquyen.dev.analyticsservice.entity.AnalyticsJob;
+import com.nguyenquyen.dev.analyticsservice.exception.JobQueueFullException;
+import com.nguyenquyen.dev.analyticsservice.repository.AnalyticsJobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs report and prediction jobs on a dedicated, bounded worker pool.
+ * Jobs are persisted in analytics_jobs before they are queued, each job type
+ * has its own concurrency limit, and new jobs are refused with
+ * JobQueueFullException once queue-capacity jobs are waiting or running.
+ * Assumes a single analytics-service instance owns the job table.
+ */
+@Service
+public class AnalyticsJobExecutor {
+
+    @Autowired
+    private AnalyticsJobRepository jobRepository;
+
+    @Autowired
+    private ObjectProvider<AnalyticsJobHandler> handlers;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${analytics.processing.thread-pool-size:10}")
+    private int workerCount;
+
+    @Value("${analytics.processing.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${analytics.processing.max-attempts:3}")
+    private int maxAttempts;
+
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    // Jobs accepted by this instance that have not finished yet
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private ExecutorService workers;
+    private volatile boolean shuttingDown = false;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "analytics-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("analytics.jobs.in_flight", inFlight, AtomicInteger::get)
+                .description("Jobs queued or running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Persists a job for the target row and queues it.
+     *
+     * @throws JobQueueFullException if the queue is at capacity
+     */
+    public void submit(String jobType, Long targetId) {
+        Lane lane = lane(jobType);
+
+        if (inFlight.incrementAndGet() > queueCapacity) {
+            inFlight.decrementAndGet();
+            lane.rejected.increment();
+            throw new JobQueueFullException("Analytics job queue is full, please retry later");
+        }
+
+        try {
+            AnalyticsJob job = jobRepository.save(AnalyticsJob.builder()
+                    .jobType(jobType)
+                    .targetId(targetId)
+                    .status("QUEUED")
+                    .attempts(0)
+                    .build());
+            enqueue(lane, job);
+        } catch (RuntimeException e) {
+            inFlight.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Requeues jobs that were waiting or running when the service last stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeJobs() {
+        int interrupted = jobRepository.requeueRunning();
+        List<AnalyticsJob> pending = jobRepository.findByStatusInOrderByIdAsc(List.of("QUEUED"));
+
+        int resumed = 0;
+        for (AnalyticsJob job : pending) {
+            Lane lane;
+            try {
+                lane = lane(job.getJobType());
+            } catch (RuntimeException e) {
+                jobRepository.finish(job.getId(), "FAILED", e.getMessage(), LocalDateTime.now());
+                continue;
+            }
+
+            if (job.getAttempts() >= maxAttempts) {
+                String message = "Gave up after " + job.getAttempts() + " attempts";
+                jobRepository.finish(job.getId(), "FAILED", message, LocalDateTime.now());
+                lane.handler.markFailed(job.getTargetId(), message);
+                continue;
+            }
+
+            // Recovered jobs were already accepted, so they bypass the capacity check
+            inFlight.incrementAndGet();
+            enqueue(lane, job);
+            resumed++;
+        }
+
+        if (resumed > 0) {
+            System.out.println("Resumed " + resumed + " analytics jobs (" + interrupted + " were interrupted)");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupted jobs stay RUNNING and are requeued on the next start
+        shuttingDown = true;
+        workers.shutdownNow();
+    }
+
+    private void enqueue(Lane lane, AnalyticsJob job) {
+        lane.pending.add(new QueuedJob(job.getId(), job.getTargetId(), System.nanoTime()));
+        drain(lane);
+    }
+
+    private void drain(Lane lane) {
+        while (!lane.pending.isEmpty() && lane.permits.tryAcquire()) {
+            QueuedJob next = lane.pending.poll();
+            if (next == null) {
+                lane.permits.release();
+                continue;
+            }
+            lane.running.incrementAndGet();
+            workers.execute(() -> run(lane, next));
+        }
+    }
+
+    private void run(Lane lane, QueuedJob queued) {
+        try {
+            if (jobRepository.claim(queued.jobId(), LocalDateTime.now()) == 0) {
+                return;
+            }
+            lane.waitTime.record(System.nanoTime() - queued.enqueuedAt(), TimeUnit.NANOSECONDS);
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String outcome = "completed";
+            try {
+                lane.handler.execute(queued.targetId());
+                jobRepository.finish(queued.jobId(), "COMPLETED", null, LocalDateTime.now());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                outcome = "interrupted";
+                if (!shuttingDown) {
+                    fail(lane, queued, "Interrupted");
+                }
+            } catch (Exception e) {
+                outcome = "failed";
+                fail(lane, queued, e.getMessage());
+            }
+            sample.stop(meterRegistry.timer("analytics.jobs.duration",
+                    "type", lane.handler.getJobType(), "outcome", outcome));
+        } catch (Exception e) {
+            System.err.println("Analytics job " + queued.jobId() + " could not be processed: " + e.getMessage());
+        } finally {
+            lane.running.decrementAndGet();
+            lane.permits.release();
+            inFlight.decrementAndGet();
+            if (!shuttingDown) {
+                drain(lane);
+            }
+        }
+    }
+
+    private void fail(Lane lane, QueuedJob queued, String errorMessage) {
+        jobRepository.finish(queued.jobId(), "FAILED", errorMessage, LocalDateTime.now());
+        lane.handler.markFailed(queued.targetId(), errorMessage);
+    }
+
+    private Lane lane(String jobType) {
+        return lanes.computeIfAbsent(jobType, type -> {
+            AnalyticsJobHandler handler = handlers.orderedStream()
+                    .filter(candidate -> candidate.getJobType().equals(type))
+                    .findFirst()
+                    .orElseThrow(() -> new RuntimeException("No handler for job type " + type));
+
+            int concurrency = environment.getProperty(
+                    "analytics.processing.max-concurrency." + type, Integer.class, handler.getDefaultConcurrency());
+            return new Lane(handler, concurrency, meterRegistry);
+        });
+    }
+
+    private record QueuedJob(Long jobId, Long targetId, long enqueuedAt) {
+    }
+
+    private static class Lane {
+        private final AnalyticsJobHandler handler;
+        private final Semaphore permits;
+        private final Queue<QueuedJob> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger running = new AtomicInteger();
+        private final Timer waitTime;
+        private final Counter rejected;
+
+        private Lane(AnalyticsJobHandler handler, int concurrency, MeterRegistry meterRegistry) {
+            this.handler = handler;
+            this.permits = new Semaphore(Math.max(1, concurrency));
+
+            String type = handler.getJobType();
+            Gauge.builder("analytics.jobs.queued", pending, Queue::size)
+                    .tag("type", type)
+                    .register(meterRegistry);
+            Gauge.builder("analytics.jobs.running", running, AtomicInteger::get)
+                    .tag("type", type)
+                    .register(meterRegistry);
+            this.waitTime = Timer.builder("analytics.jobs.wait")
+                    .tag("type", type)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("analytics.jobs.rejected")
+                    .tag("type", type)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.nguyenquyen.dev.analyticsservice.service;
+
+/**
+ * Processes one type of background job for AnalyticsJobExecutor.
+ */
+public interface AnalyticsJobHandler {
+
+    String getJobType();
+
+    /**
+     * How many jobs of this type may run at once, unless overridden by
+     * analytics.processing.max-concurrency.&lt;type&gt;.
+     */
+    int getDefaultConcurrency();
+
+    /**
+     * Does the work for the given target row and marks it completed.
+     */
+    void execute(Long targetId) throws Exception;
+
+    /**
+     * Records on the target row that its job failed for good.
+     */
+    void markFailed(Long targetId, String errorMessage);
+}
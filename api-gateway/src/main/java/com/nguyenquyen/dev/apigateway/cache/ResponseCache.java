@@ -0,0 +1,144 @@
+package com.nguyenquyen.dev.apigateway.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded LRU store for cached gateway responses. Bounded both by entry
+ * count and by the total bytes of the cached bodies.
+ */
+@Component
+public class ResponseCache {
+
+    /**
+     * A cached 200 response. Only the body and the headers needed to replay it are kept.
+     */
+    public record Entry(byte[] body, String contentType, String etag, long expiresAtMillis) {
+
+        boolean isFresh(long now) {
+            return now < expiresAtMillis;
+        }
+
+        boolean isUsableStale(long now, long maxStaleMillis) {
+            return now < expiresAtMillis + maxStaleMillis;
+        }
+    }
+
+    private final ResponseCacheProperties properties;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter notModified;
+    private final Counter evictions;
+
+    @Autowired
+    public ResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.hits = meterRegistry.counter("gateway.response_cache.gets", "result", "hit");
+        this.misses = meterRegistry.counter("gateway.response_cache.gets", "result", "miss");
+        this.notModified = meterRegistry.counter("gateway.response_cache.not_modified");
+        this.evictions = meterRegistry.counter("gateway.response_cache.evictions");
+        Gauge.builder("gateway.response_cache.size", this, ResponseCache::size).register(meterRegistry);
+        Gauge.builder("gateway.response_cache.bytes", this, ResponseCache::bytes).register(meterRegistry);
+    }
+
+    public synchronized Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.isFresh(System.currentTimeMillis())) {
+            // Kept until evicted, replaced or purged, it may still serve as a stale fallback
+            entry = null;
+        }
+
+        if (entry != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the entry even if its TTL has passed, as long as it expired less
+     * than max-stale-seconds ago. Expired entries past that are dropped.
+     */
+    public synchronized Entry getStale(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.isUsableStale(System.currentTimeMillis(), properties.getMaxStaleSeconds() * 1000)) {
+            remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    public synchronized void put(String key, Entry entry) {
+        if (entry.body().length > properties.getMaxEntryBytes()) {
+            return;
+        }
+
+        remove(key);
+        entries.put(key, entry);
+        totalBytes += entry.body().length;
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (eldest.hasNext() && (entries.size() > properties.getMaxEntries() || totalBytes > properties.getMaxBytes())) {
+            totalBytes -= eldest.next().getValue().body().length;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    public void notModifiedServed() {
+        notModified.increment();
+    }
+
+    /**
+     * Removes every entry whose request path starts with the prefix.
+     * Keys are "audience path?query", so the audience part is skipped.
+     */
+    public synchronized int purge(String pathPrefix) {
+        int removed = 0;
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> cached = it.next();
+            String key = cached.getKey();
+            if (key.startsWith(pathPrefix, key.indexOf(' ') + 1)) {
+                totalBytes -= cached.getValue().body().length;
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public synchronized void purgeAll() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long bytes() {
+        return totalBytes;
+    }
+
+    // Caller must hold the monitor
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.body().length;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.nguyenquyen.dev.apigateway.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Purge endpoint called by backend services when cached content changes.
+ * Requests are signed with HMAC-SHA256 over "cache-purge.{timestamp}.{prefix}"
+ * using the internal auth secret, and must be recent.
+ */
+@RestController
+@RequestMapping("/internal/cache")
+public class ResponseCacheController {
+
+    private static final String SIGNATURE_PREFIX = "cache-purge.";
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private ResponseCacheProperties properties;
+
+    @Value("${internal.auth.secret:${jwt.secret}}")
+    private String internalSecret;
+
+    @DeleteMapping
+    public ResponseEntity<?> purge(@RequestParam(required = false) String prefix,
+                                   @RequestHeader("X-Purge-Timestamp") long timestamp,
+                                   @RequestHeader("X-Purge-Signature") String signature) {
+        long skew = Math.abs(System.currentTimeMillis() / 1000 - timestamp);
+        if (skew > properties.getPurgeMaxSkewSeconds() || !validSignature(timestamp, prefix, signature)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("message", "Invalid purge signature"));
+        }
+
+        if (prefix == null || prefix.isEmpty()) {
+            responseCache.purgeAll();
+            return ResponseEntity.ok(Map.of("message", "Response cache cleared"));
+        }
+
+        int removed = responseCache.purge(prefix);
+        return ResponseEntity.ok(Map.of("message", "Response cache purged", "removed", removed));
+    }
+
+    private boolean validSignature(long timestamp, String prefix, String signature) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(internalSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] expected = mac.doFinal((SIGNATURE_PREFIX + timestamp + "." + (prefix != null ? prefix : ""))
+                    .getBytes(StandardCharsets.UTF_8));
+            return MessageDigest.isEqual(expected, Base64.getUrlDecoder().decode(signature));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.nguyenquyen.dev.apigateway.cache;
+
+import com.nguyenquyen.dev.apigateway.filter.EdgeAuthenticationFilter;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.RequestPath;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Serves cacheable GETs (see gateway.cache.routes) from ResponseCache without
+ * contacting the backend, and stores successful backend responses on a miss.
+ * Every cached response carries a content-hash ETag, and a matching
+ * If-None-Match is answered with 304 straight from the gateway.
+ */
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private final ResponseCache cache;
+    private final ResponseCacheProperties properties;
+    private final List<CompiledRule> rules = new ArrayList<>();
+
+    private record CompiledRule(PathPattern pattern, ResponseCacheProperties.Rule rule) {
+    }
+
+    public ResponseCacheFilter(ResponseCache cache, ResponseCacheProperties properties) {
+        this.cache = cache;
+        this.properties = properties;
+        for (ResponseCacheProperties.Rule rule : properties.getRoutes()) {
+            rules.add(new CompiledRule(PathPatternParser.defaultInstance.parse(rule.getPath()), rule));
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!properties.isEnabled() || request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+
+        ResponseCacheProperties.Rule rule = match(request.getPath().pathWithinApplication());
+        String key = rule != null ? cacheKey(exchange, rule, request.getURI()) : null;
+        if (key == null) {
+            return chain.filter(exchange);
+        }
+
+        ResponseCache.Entry cached = cache.get(key);
+        if (cached != null) {
+            return serve(exchange, cached, "HIT");
+        }
+
+        long expiresAt = System.currentTimeMillis() + rule.getTtlSeconds() * 1000;
+        CachingResponse response = new CachingResponse(exchange, key, expiresAt);
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+
+    @Override
+    public int getOrder() {
+        // After EdgeAuthenticationFilter, so the verified caller is known
+        return Ordered.HIGHEST_PRECEDENCE + 20;
+    }
+
+    /**
+     * Writes a stale cached copy of the original request, if there is one.
+     * Used as the read fallback when the backend is unavailable.
+     */
+    public Mono<Void> serveStale(ServerWebExchange exchange, URI originalUri) {
+        ResponseCacheProperties.Rule rule = match(RequestPath.parse(originalUri.getRawPath(), null));
+        String key = rule != null ? cacheKey(exchange, rule, originalUri) : null;
+        ResponseCache.Entry stale = key != null ? cache.getStale(key) : null;
+        return stale != null ? serve(exchange, stale, "STALE") : null;
+    }
+
+    private ResponseCacheProperties.Rule match(PathContainer path) {
+        for (CompiledRule compiled : rules) {
+            if (compiled.pattern().matches(path)) {
+                return compiled.rule();
+            }
+        }
+        return null;
+    }
+
+    private static String cacheKey(ServerWebExchange exchange, ResponseCacheProperties.Rule rule, URI uri) {
+        String audience = audience(exchange, rule);
+        if (audience == null) {
+            return null;
+        }
+        String query = uri.getRawQuery();
+        return audience + " " + uri.getRawPath() + (query != null ? "?" + query : "");
+    }
+
+    /**
+     * Which shared copy the caller may use, or null if the request must bypass the cache.
+     */
+    private static String audience(ServerWebExchange exchange, ResponseCacheProperties.Rule rule) {
+        if (rule.isAuthenticated()) {
+            return exchange.getAttribute(EdgeAuthenticationFilter.USER_ID_ATTRIBUTE) != null ? "auth" : null;
+        }
+        // Responses to signed-in callers may be personalised (e.g. hasAccess), never share them
+        return exchange.getRequest().getHeaders().containsKey(HttpHeaders.AUTHORIZATION) ? null : "anon";
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, ResponseCache.Entry entry, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(entry.etag());
+        headers.setCacheControl("no-cache");
+        headers.set(CACHE_STATUS_HEADER, cacheStatus);
+
+        if (matchesEtag(exchange.getRequest(), entry.etag())) {
+            cache.notModifiedServed();
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(HttpStatus.OK);
+        if (entry.contentType() != null) {
+            headers.set(HttpHeaders.CONTENT_TYPE, entry.contentType());
+        }
+        headers.setContentLength(entry.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(entry.body())));
+    }
+
+    private static boolean matchesEtag(ServerHttpRequest request, String etag) {
+        List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+        return ifNoneMatch.contains(etag) || ifNoneMatch.contains("*");
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Captures a successful backend body, stores it and then writes it (or a 304) to the client.
+     */
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final String key;
+        private final long expiresAt;
+
+        CachingResponse(ServerWebExchange exchange, String key, long expiresAt) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.key = key;
+            this.expiresAt = expiresAt;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            // A stale copy written by the fallback through this response is not stored again as fresh
+            if (status == null || status.value() != HttpStatus.OK.value()
+                    || getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)
+                    || getHeaders().containsKey(CACHE_STATUS_HEADER)) {
+                return super.writeWith(body);
+            }
+
+            return DataBufferUtils.join(Flux.from(body)).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+
+                MediaType contentType = getHeaders().getContentType();
+                String etag = etag(bytes);
+                cache.put(key, new ResponseCache.Entry(bytes,
+                        contentType != null ? contentType.toString() : null, etag, expiresAt));
+
+                HttpHeaders headers = getHeaders();
+                headers.setETag(etag);
+                headers.setCacheControl("no-cache");
+                headers.remove(HttpHeaders.PRAGMA);
+                headers.remove(HttpHeaders.EXPIRES);
+                headers.set(CACHE_STATUS_HEADER, "MISS");
+
+                if (matchesEtag(exchange.getRequest(), etag)) {
+                    cache.notModifiedServed();
+                    setStatusCode(HttpStatus.NOT_MODIFIED);
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                    return setComplete();
+                }
+
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+    }
+}
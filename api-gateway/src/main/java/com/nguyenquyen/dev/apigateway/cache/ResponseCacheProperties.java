@@ -0,0 +1,45 @@
+package com.nguyenquyen.dev.apigateway.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    // Bounds for the whole cache and for a single response body
+    private int maxEntries = 1000;
+    private long maxBytes = 32L * 1024 * 1024;
+    private int maxEntryBytes = 1024 * 1024;
+
+    // How long past its TTL an entry may still be served as the fallback when the backend is down
+    private long maxStaleSeconds = 600;
+
+    // Accepted clock difference for signed purge requests
+    private long purgeMaxSkewSeconds = 60;
+
+    private List<Rule> routes = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+
+        // Gateway path pattern, e.g. /data/api/datasets/public/**
+        private String path;
+
+        private long ttlSeconds = 60;
+
+        /*
+         * false: only anonymous requests are cached and served from cache.
+         * true: the response does not depend on the caller, one copy is shared by
+         * every caller whose token was verified at the edge.
+         */
+        private boolean authenticated = false;
+    }
+}
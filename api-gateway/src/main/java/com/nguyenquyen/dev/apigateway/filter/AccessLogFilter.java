@@ -0,0 +1,105 @@
+package com.nguyenquyen.dev.apigateway.filter;
+
+import com.nguyenquyen.dev.apigateway.logging.AccessLogBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every request per route and hands a sampled access log line to
+ * AccessLogBuffer. Nothing here writes to stdout on the event loop.
+ * Failed requests (5xx, errors, cancellations) are always logged.
+ */
+@Component
+public class AccessLogFilter implements GlobalFilter, Ordered {
+
+    @Autowired
+    private AccessLogBuffer accessLogBuffer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${gateway.access-log.enabled:true}")
+    private boolean accessLogEnabled;
+
+    @Value("${gateway.access-log.sample-rate:1.0}")
+    private double sampleRate;
+
+    // "routeId|outcome" -> timer, built once per combination
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+
+        return chain.filter(exchange)
+                .doFinally(signal -> record(exchange, signal, System.nanoTime() - start));
+    }
+
+    @Override
+    public int getOrder() {
+        // Outermost, so the timing covers every other filter
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private void record(ServerWebExchange exchange, SignalType signal, long durationNanos) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "unmatched";
+
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        String outcome = outcome(signal, status);
+
+        timer(routeId, outcome).record(durationNanos, TimeUnit.NANOSECONDS);
+
+        boolean failed = !"SUCCESS".equals(outcome) && !"CLIENT_ERROR".equals(outcome);
+        if (accessLogEnabled && (failed || ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+            ServerHttpRequest request = exchange.getRequest();
+            accessLogBuffer.offer(Instant.now() + " " + request.getMethod() + " " + request.getPath()
+                    + " route=" + routeId
+                    + " status=" + (status != null ? status.value() : "-")
+                    + " durationMs=" + TimeUnit.NANOSECONDS.toMillis(durationNanos)
+                    + (signal != SignalType.ON_COMPLETE ? " signal=" + signal : ""));
+        }
+    }
+
+    private Timer timer(String routeId, String outcome) {
+        return timers.computeIfAbsent(routeId + "|" + outcome, key -> Timer.builder("gateway.route.latency")
+                .description("Gateway request latency per route")
+                .tag("route", routeId)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private static String outcome(SignalType signal, HttpStatusCode status) {
+        if (signal == SignalType.CANCEL) {
+            return "CANCELLED";
+        }
+        if (signal == SignalType.ON_ERROR) {
+            return "ERROR";
+        }
+        if (status == null || status.is2xxSuccessful() || status.is3xxRedirection()) {
+            return "SUCCESS";
+        }
+        return status.is4xxClientError() ? "CLIENT_ERROR" : "SERVER_ERROR";
+    }
+}
@@ -0,0 +1,219 @@
+package com.nguyenquyen.dev.apigateway.filter;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Verifies the bearer JWT once at the edge and forwards the caller as a compact,
+ * HMAC-signed X-Internal-Claims header. Downstream services trust that header
+ * instead of parsing and verifying the JWT again on every hop.
+ *
+ * The header is always stripped from incoming requests, so clients cannot forge
+ * it. Invalid tokens are forwarded untouched and rejected downstream as before.
+ */
+@Component
+public class EdgeAuthenticationFilter implements GlobalFilter, Ordered {
+
+    public static final String INTERNAL_CLAIMS_HEADER = "X-Internal-Claims";
+
+    // Exchange attribute holding the verified userId, used as the rate limit key
+    public static final String USER_ID_ATTRIBUTE = EdgeAuthenticationFilter.class.getName() + ".USER_ID";
+
+    // Keeps the internal signature distinct from any JWT signed with the same key
+    private static final String SIGNATURE_PREFIX = "internal-claims.";
+
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+
+    // A full cache is swept at most this often, expired entries are removed in one pass
+    private static final Duration MIN_SWEEP_INTERVAL = Duration.ofSeconds(1);
+
+    private final JWSVerifier verifier;
+    private final SecretKeySpec internalKey;
+    private final int cacheMaxSize;
+
+    // token digest -> verified internal claims header
+    private final Map<String, Verified> verified = new ConcurrentHashMap<>();
+
+    // No entry can have expired before this, so a full cache of live tokens is not scanned on every miss
+    private final AtomicReference<Instant> nextSweepAt = new AtomicReference<>(Instant.MIN);
+
+    public EdgeAuthenticationFilter(@Value("${jwt.secret}") String jwtSecret,
+                                    @Value("${internal.auth.secret:${jwt.secret}}") String internalSecret,
+                                    @Value("${gateway.auth.cache.max-size:10000}") int cacheMaxSize) throws JOSEException {
+        this.verifier = new MACVerifier(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.internalKey = new SecretKeySpec(internalSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        Verified caller = authorization != null && authorization.startsWith("Bearer ")
+                ? verifiedCaller(authorization.substring(7).trim())
+                : null;
+
+        ServerHttpRequest forwarded = request.mutate()
+                .headers(headers -> {
+                    headers.remove(INTERNAL_CLAIMS_HEADER);
+                    if (caller != null) {
+                        headers.set(INTERNAL_CLAIMS_HEADER, caller.header());
+                    }
+                })
+                .build();
+
+        if (caller != null) {
+            exchange.getAttributes().put(USER_ID_ATTRIBUTE, caller.userId());
+        }
+
+        return chain.filter(exchange.mutate().request(forwarded).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+
+    private Verified verifiedCaller(String token) {
+        String key = digest(token);
+        Instant now = Instant.now();
+
+        Verified cached = verified.get(key);
+        if (cached != null) {
+            if (cached.expiresAt().isAfter(now)) {
+                return cached;
+            }
+            verified.remove(key, cached);
+        }
+
+        Verified result = verify(token, now);
+        if (result == null) {
+            return null;
+        }
+
+        if (verified.size() >= cacheMaxSize) {
+            evictExpired(now);
+        }
+        if (verified.size() < cacheMaxSize) {
+            verified.put(key, result);
+            nextSweepAt.accumulateAndGet(result.expiresAt(), EdgeAuthenticationFilter::earliest);
+        }
+        return result;
+    }
+
+    // Runs on the event loop, so only when some cached token can have expired
+    private void evictExpired(Instant now) {
+        if (now.isBefore(nextSweepAt.get())) {
+            return;
+        }
+
+        synchronized (this) {
+            if (now.isBefore(nextSweepAt.get())) {
+                return;
+            }
+
+            // Reset first: entries cached during the pass lower it again themselves
+            nextSweepAt.set(Instant.MAX);
+            Instant[] earliestLeft = {Instant.MAX};
+            verified.values().removeIf(entry -> {
+                if (!entry.expiresAt().isAfter(now)) {
+                    return true;
+                }
+                earliestLeft[0] = earliest(earliestLeft[0], entry.expiresAt());
+                return false;
+            });
+
+            Instant notBefore = now.plus(MIN_SWEEP_INTERVAL);
+            Instant next = earliestLeft[0].isAfter(notBefore) ? earliestLeft[0] : notBefore;
+            nextSweepAt.accumulateAndGet(next, EdgeAuthenticationFilter::earliest);
+        }
+    }
+
+    private static Instant earliest(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private Verified verify(String token, Instant now) {
+        try {
+            SignedJWT jwt = SignedJWT.parse(token);
+            if (!JWSAlgorithm.HS256.equals(jwt.getHeader().getAlgorithm()) || !jwt.verify(verifier)) {
+                return null;
+            }
+
+            JWTClaimsSet claims = jwt.getJWTClaimsSet();
+            Date expiration = claims.getExpirationTime();
+            Object userId = claims.getClaim("userId");
+            String role = claims.getStringClaim("role");
+
+            // Refresh tokens carry no user claims and are not forwarded as identities
+            if (expiration == null || !expiration.toInstant().isAfter(now) || userId == null || role == null) {
+                return null;
+            }
+
+            String email = claims.getStringClaim("email");
+            String payload = String.join("\n",
+                    String.valueOf(userId),
+                    role,
+                    String.valueOf(expiration.toInstant().getEpochSecond()),
+                    clean(email != null ? email : claims.getSubject()),
+                    clean(claims.getStringClaim("fullName")));
+
+            return new Verified(String.valueOf(userId), sign(payload), expiration.toInstant());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private String sign(String payload) throws GeneralSecurityException {
+        String encoded = BASE64.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(internalKey);
+        byte[] signature = mac.doFinal((SIGNATURE_PREFIX + encoded).getBytes(StandardCharsets.UTF_8));
+
+        return encoded + "." + BASE64.encodeToString(signature);
+    }
+
+    private static String clean(String value) {
+        return value != null ? value.replace('\n', ' ') : "";
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Verified(String userId, String header, Instant expiresAt) {
+    }
+}
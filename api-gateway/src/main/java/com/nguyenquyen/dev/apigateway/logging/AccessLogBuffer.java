@@ -0,0 +1,121 @@
+package com.nguyenquyen.dev.apigateway.logging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded multi-producer ring buffer for access log lines.
+ * Netty event-loop threads only claim a slot and store the line; a single
+ * background writer drains the ring and prints whole batches. When the ring is
+ * full new lines are dropped and counted rather than blocking a request.
+ */
+@Component
+public class AccessLogBuffer {
+
+    private final AtomicReferenceArray<String> slots;
+    private final int mask;
+
+    // Next slot to claim (producers) and next slot to drain (writer only)
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head = 0;
+
+    private final long drainIntervalNanos;
+    private final Counter dropped;
+
+    private volatile boolean running = false;
+    private Thread writer;
+
+    public AccessLogBuffer(@Value("${gateway.access-log.buffer-size:8192}") int bufferSize,
+                           @Value("${gateway.access-log.drain-interval-ms:200}") long drainIntervalMs,
+                           MeterRegistry meterRegistry) {
+        int capacity = Integer.highestOneBit(Math.max(bufferSize, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.drainIntervalNanos = drainIntervalMs * 1_000_000L;
+        this.dropped = meterRegistry.counter("gateway.access_log.dropped");
+        Gauge.builder("gateway.access_log.pending", this, AccessLogBuffer::pending)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::runWriter, "access-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Enqueues a line without blocking. Returns false if the ring was full.
+     */
+    public boolean offer(String line) {
+        long claimed;
+        do {
+            claimed = tail.get();
+            if (claimed - head >= slots.length()) {
+                dropped.increment();
+                return false;
+            }
+        } while (!tail.compareAndSet(claimed, claimed + 1));
+
+        slots.lazySet((int) (claimed & mask), line);
+        return true;
+    }
+
+    public long pending() {
+        return tail.get() - head;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            writer.join(2000);
+        }
+        drain();
+    }
+
+    private void runWriter() {
+        while (running) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(drainIntervalNanos);
+            }
+        }
+    }
+
+    // Called by the writer thread only, and once more after it has stopped
+    private synchronized int drain() {
+        StringBuilder batch = new StringBuilder();
+        int count = 0;
+
+        long position = head;
+        while (true) {
+            int index = (int) (position & mask);
+            String line = slots.get(index);
+            if (line == null) {
+                // Empty, or the producer that claimed this slot has not stored it yet
+                break;
+            }
+            slots.lazySet(index, null);
+            batch.append(line).append('\n');
+            position++;
+            count++;
+        }
+        head = position;
+
+        if (count > 0) {
+            System.out.print(batch);
+        }
+        return count;
+    }
+}
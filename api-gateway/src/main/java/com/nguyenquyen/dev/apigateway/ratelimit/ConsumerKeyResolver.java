@@ -0,0 +1,35 @@
+package com.nguyenquyen.dev.apigateway.ratelimit;
+
+import com.nguyenquyen.dev.apigateway.filter.EdgeAuthenticationFilter;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Rate limit key for a request: the verified userId, else the client IP address.
+ * Dataset API tokens are not checked here, so they are not used as a key;
+ * otherwise every made-up token would get a fresh bucket. Their per-token
+ * quota is enforced by Data Service.
+ */
+@Component
+public class ConsumerKeyResolver implements KeyResolver {
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        String userId = exchange.getAttribute(EdgeAuthenticationFilter.USER_ID_ATTRIBUTE);
+        if (userId != null) {
+            return Mono.just("user:" + userId);
+        }
+
+        ServerHttpRequest request = exchange.getRequest();
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        String ip = remoteAddress != null && remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : "unknown";
+        return Mono.just("ip:" + ip);
+    }
+}
@@ -0,0 +1,191 @@
+package com.nguyenquyen.dev.apigateway.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token-bucket RateLimiter for the RequestRateLimiter filter that keeps its
+ * state in process, so no Redis is needed.
+ *
+ * Each bucket is a single AtomicLong holding the time at which it will be full
+ * again (GCRA). Taking tokens is one CAS, and a bucket whose time has passed is
+ * full, so idle buckets can be dropped without changing any client's quota.
+ * Quotas are set per route with the in-memory-rate-limiter.* filter args.
+ */
+@Component
+public class InMemoryRateLimiter extends AbstractRateLimiter<InMemoryRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "in-memory-rate-limiter";
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+    public static final String REQUESTED_TOKENS_HEADER = "X-RateLimit-Requested-Tokens";
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    // routeId + ":" + key -> time at which the bucket is full again (System.nanoTime)
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    // Cleared when an inline sweep of a full map freed nothing; the scheduled sweep sets it again
+    private final AtomicBoolean inlineSweepAllowed = new AtomicBoolean(true);
+
+    private final Config defaultConfig;
+    private final int maxBuckets;
+
+    private final Counter allowed;
+    private final Counter denied;
+
+    public InMemoryRateLimiter(ConfigurationService configurationService,
+                               MeterRegistry meterRegistry,
+                               @Value("${gateway.rate-limit.default-replenish-rate:50}") int defaultReplenishRate,
+                               @Value("${gateway.rate-limit.default-burst-capacity:100}") long defaultBurstCapacity,
+                               @Value("${gateway.rate-limit.max-buckets:100000}") int maxBuckets) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.defaultConfig = new Config()
+                .setReplenishRate(defaultReplenishRate)
+                .setBurstCapacity(defaultBurstCapacity);
+        this.maxBuckets = maxBuckets;
+        this.allowed = meterRegistry.counter("gateway.rate_limit.requests", "result", "allowed");
+        this.denied = meterRegistry.counter("gateway.rate_limit.requests", "result", "denied");
+        Gauge.builder("gateway.rate_limit.buckets", buckets, Map::size).register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+
+        long now = System.nanoTime();
+        long interval = NANOS_PER_SECOND / config.getReplenishRate();
+        long cost = interval * config.getRequestedTokens();
+        long capacity = interval * config.getBurstCapacity();
+
+        AtomicLong bucket = bucket(routeId, id, now);
+
+        while (true) {
+            long fullAt = bucket.get();
+            long start = Math.max(fullAt, now);
+            long next = start + cost;
+
+            if (next - now > capacity) {
+                denied.increment();
+                Map<String, String> headers = headers(config, (capacity - (start - now)) / interval);
+                long waitNanos = next - now - capacity;
+                headers.put("Retry-After", String.valueOf(Math.max(1, (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND)));
+                return Mono.just(new Response(false, headers));
+            }
+
+            if (bucket.compareAndSet(fullAt, next)) {
+                allowed.increment();
+                return Mono.just(new Response(true, headers(config, (capacity - (next - now)) / interval)));
+            }
+        }
+    }
+
+    /**
+     * Drops buckets that have refilled completely. They are indistinguishable
+     * from a new bucket, so this only frees memory.
+     */
+    @Scheduled(fixedDelayString = "${gateway.rate-limit.idle-sweep-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        removeIdleBuckets();
+        inlineSweepAllowed.set(true);
+    }
+
+    private void removeIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    private AtomicLong bucket(String routeId, String id, long now) {
+        String key = routeId + ":" + id;
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+
+        if (buckets.size() >= maxBuckets) {
+            // One caller scans on the event loop; until the next scheduled sweep, a scan
+            // that freed nothing sends new callers straight to the overflow bucket
+            if (inlineSweepAllowed.compareAndSet(true, false)) {
+                removeIdleBuckets();
+                if (buckets.size() < maxBuckets) {
+                    inlineSweepAllowed.set(true);
+                }
+            }
+            if (buckets.size() >= maxBuckets) {
+                // Still full: unknown callers share one bucket per route rather than going unlimited
+                key = routeId + ":overflow";
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    private static Map<String, String> headers(Config config, long remaining) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put(REMAINING_HEADER, String.valueOf(Math.max(0, remaining)));
+        headers.put(REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()));
+        headers.put(BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()));
+        headers.put(REQUESTED_TOKENS_HEADER, String.valueOf(config.getRequestedTokens()));
+        return headers;
+    }
+
+    @Validated
+    public static class Config {
+
+        // Tokens added per second
+        @Min(1)
+        private int replenishRate = 50;
+
+        // Maximum tokens a bucket can hold, i.e. the allowed burst
+        @Min(1)
+        private long burstCapacity = 100;
+
+        // Tokens taken per request
+        @Min(1)
+        private int requestedTokens = 1;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public long getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(long burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public Config setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.nguyenquyen.dev.apigateway.resilience;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the number of requests in flight to each route with an AimdLimiter.
+ * When a backend slows down its limit shrinks, and requests over the limit
+ * are rejected with 503 straight away instead of queueing for a connection
+ * that every other route also needs.
+ */
+@Component
+public class AdaptiveConcurrencyFilter implements GlobalFilter, Ordered {
+
+    private static final byte[] REJECTED_BODY =
+            "{\"message\":\"Service is overloaded, please retry later\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private ConcurrencyLimitProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // routeId -> limiter, created on the first request to the route
+    private final Map<String, AimdLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null) {
+            return chain.filter(exchange);
+        }
+
+        String routeId = route.getId();
+        AimdLimiter limiter = limiters.computeIfAbsent(routeId, this::createLimiter);
+
+        if (!limiter.tryAcquire()) {
+            meterRegistry.counter("gateway.concurrency.rejected", "route", routeId).increment();
+            return reject(exchange);
+        }
+
+        long start = System.nanoTime();
+
+        // Latency is measured to the response headers, so a long streamed body
+        // (e.g. an NDJSON export) does not read as an overloaded backend
+        AtomicLong headersAt = new AtomicLong();
+        exchange.getResponse().beforeCommit(() -> {
+            headersAt.compareAndSet(0, System.nanoTime());
+            return Mono.empty();
+        });
+
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    long end = headersAt.get() != 0 ? headersAt.get() : System.nanoTime();
+                    limiter.release(end - start,
+                            failed(signal, exchange.getResponse().getStatusCode()),
+                            signal == SignalType.CANCEL);
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        // After the response cache, so cache hits never take a slot
+        return Ordered.HIGHEST_PRECEDENCE + 30;
+    }
+
+    private AimdLimiter createLimiter(String routeId) {
+        AimdLimiter limiter = new AimdLimiter(properties.forRoute(routeId));
+        Gauge.builder("gateway.concurrency.limit", limiter, AimdLimiter::getLimit)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in_flight", limiter, AimdLimiter::getInFlight)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    private static boolean failed(SignalType signal, HttpStatusCode status) {
+        if (signal == SignalType.ON_ERROR) {
+            return true;
+        }
+        return status != null && (status.value() == 502 || status.value() == 503 || status.value() == 504);
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(REJECTED_BODY)));
+    }
+}
@@ -0,0 +1,60 @@
+package com.nguyenquyen.dev.apigateway.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit for one route, adjusted with AIMD on every response.
+ * The limit grows by one after a fast success while at least half of it is
+ * in use, and shrinks by backoffRatio after a slow response (time to the
+ * response headers), a 502/503/504 or a connection error.
+ */
+public class AimdLimiter {
+
+    private final ConcurrencyLimitProperties.Limit settings;
+    private final long latencyThresholdNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+
+    public AimdLimiter(ConcurrencyLimitProperties.Limit settings) {
+        this.settings = settings;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(settings.getLatencyThresholdMs());
+        this.limit = settings.getInitialLimit();
+    }
+
+    public boolean tryAcquire() {
+        if (inFlight.incrementAndGet() > (int) limit) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Releases a slot taken by tryAcquire and feeds the outcome into the limit.
+     * A cancelled request only releases, it says nothing about the backend.
+     */
+    public void release(long rttNanos, boolean failed, boolean cancelled) {
+        int current = inFlight.getAndDecrement();
+        if (cancelled) {
+            return;
+        }
+
+        synchronized (this) {
+            if (failed || rttNanos > latencyThresholdNanos) {
+                limit = Math.max(settings.getMinLimit(), limit * settings.getBackoffRatio());
+            } else if (current * 2 >= limit) {
+                limit = Math.min(settings.getMaxLimit(), limit + 1);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
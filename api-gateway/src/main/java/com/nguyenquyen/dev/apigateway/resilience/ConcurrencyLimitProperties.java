@@ -0,0 +1,40 @@
+package com.nguyenquyen.dev.apigateway.resilience;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.concurrency")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    // Used for every route without its own entry under routes
+    private Limit defaults = new Limit();
+
+    // routeId -> limit settings
+    private Map<String, Limit> routes = new HashMap<>();
+
+    public Limit forRoute(String routeId) {
+        return routes.getOrDefault(routeId, defaults);
+    }
+
+    @Data
+    public static class Limit {
+
+        private int initialLimit = 50;
+        private int minLimit = 5;
+        private int maxLimit = 500;
+
+        // Multiplicative decrease applied when the backend shows overload
+        private double backoffRatio = 0.9;
+
+        // A request slower than this counts as an overload signal
+        private long latencyThresholdMs = 2000;
+    }
+}
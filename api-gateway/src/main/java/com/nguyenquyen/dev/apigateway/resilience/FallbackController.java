@@ -0,0 +1,60 @@
+package com.nguyenquyen.dev.apigateway.resilience;
+
+import com.nguyenquyen.dev.apigateway.cache.ResponseCacheFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Target of the CircuitBreaker filters' fallbackUri. Reads are answered with
+ * the last cached copy when the response cache has one (X-Cache: STALE);
+ * everything else fails fast with 503.
+ */
+@RestController
+@RequestMapping("/fallback")
+public class FallbackController {
+
+    @Autowired
+    private ResponseCacheFilter responseCacheFilter;
+
+    @RequestMapping("/{service}")
+    public Mono<Void> fallback(@PathVariable String service, ServerWebExchange exchange) {
+        URI originalUri = originalUri(exchange);
+        if (HttpMethod.GET.equals(exchange.getRequest().getMethod()) && originalUri != null) {
+            Mono<Void> stale = responseCacheFilter.serveStale(exchange, originalUri);
+            if (stale != null) {
+                return stale;
+            }
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "5");
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        byte[] body = ("{\"message\":\"Service temporarily unavailable\",\"service\":\"" + service + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private static URI originalUri(ServerWebExchange exchange) {
+        Set<URI> uris = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ORIGINAL_REQUEST_URL_ATTR);
+        if (uris == null) {
+            return null;
+        }
+        // The first entry is the URL the client called, before any rewriting
+        return uris.iterator().hasNext() ? uris.iterator().next() : null;
+    }
+}
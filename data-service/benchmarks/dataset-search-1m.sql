@@ -0,0 +1,146 @@
+-- Dataset search benchmark on 1,000,000 synthetic datasets.
+--
+-- Checks that the composite indexes idx_status_category_price and
+-- idx_status_region_country are used by the queries DatasetSpecifications
+-- builds, and how they compare to the single-column indexes alone.
+--
+-- Needs MySQL 8.0.18+ (EXPLAIN ANALYZE) and the data-service schema in
+-- ev_data_db (schema.sql or a first start of the service). Everything is
+-- written to a scratch database, ev_data_bench, which is dropped first:
+--
+--   mysql -u root -p < benchmarks/dataset-search-1m.sql > dataset-search-1m.txt
+--
+-- Loading takes a few minutes. Compare the "actual time" and "rows" of each
+-- query pair in the output: with indexes vs IGNORE INDEX on the composites.
+--
+-- Keyword + filter searches are normally answered in memory (BM25 hits
+-- intersected with the facet bitmaps) and never reach MySQL, so that case is
+-- not measured here. What is covered are the two SQL paths it falls back to
+-- while the in-memory indexes are still building: the single filtered ID
+-- query, and the LIKE query used when the search index is not ready.
+
+DROP DATABASE IF EXISTS ev_data_bench;
+CREATE DATABASE ev_data_bench CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci;
+USE ev_data_bench;
+
+CREATE TABLE data_categories LIKE ev_data_db.data_categories;
+CREATE TABLE datasets LIKE ev_data_db.datasets;
+
+CREATE TABLE digits (d INT PRIMARY KEY);
+INSERT INTO digits VALUES (0), (1), (2), (3), (4), (5), (6), (7), (8), (9);
+
+-- 20 categories
+INSERT INTO data_categories (name, code, type, active, display_order, created_at, updated_at)
+SELECT CONCAT('Category ', n), CONCAT('CAT_', n), 'CHARGING', TRUE, n, NOW(), NOW()
+FROM (SELECT a.d * 10 + b.d + 1 AS n FROM digits a, digits b) c
+WHERE n <= 20;
+
+-- 1,000,000 datasets: 80% PUBLISHED, 8 regions x 5 countries, prices 0-999.99,
+-- created over the last two years
+SET @first_category = (SELECT MIN(id) FROM data_categories);
+
+INSERT INTO datasets (name, code, description, category_id, provider_id, provider_name,
+                      data_type, format, status, pricing_model, price, currency, usage_rights,
+                      region, country, city, data_start_date, data_end_date, tags,
+                      created_at, updated_at, published_at)
+SELECT CONCAT('Dataset ', n),
+       CONCAT('DS_', n),
+       CONCAT('Synthetic charging data set ', n),
+       @first_category + n % 20,
+       1 + n % 500,
+       CONCAT('Provider ', 1 + n % 500),
+       ELT(1 + n % 4, 'RAW', 'ANALYZED', 'AGGREGATED', 'REALTIME'),
+       ELT(1 + n % 3, 'CSV', 'JSON', 'PARQUET'),
+       IF(n % 10 < 8, 'PUBLISHED', ELT(1 + n % 3, 'DRAFT', 'PENDING_REVIEW', 'SUSPENDED')),
+       ELT(1 + n % 3, 'ONE_TIME', 'SUBSCRIPTION', 'API_ACCESS'),
+       (n * 7919) % 100000 / 100,
+       'USD',
+       ELT(1 + n % 3, 'RESEARCH', 'COMMERCIAL', 'INTERNAL'),
+       CONCAT('Region ', 1 + n % 8),
+       CONCAT('Country ', 1 + n % 8, '-', 1 + (n DIV 8) % 5),
+       CONCAT('City ', 1 + n % 200),
+       NOW() - INTERVAL (n % 1000) DAY,
+       NOW() - INTERVAL (n % 1000) DAY + INTERVAL 90 DAY,
+       'ev,charging,synthetic',
+       NOW() - INTERVAL (n % 730) DAY - INTERVAL (n % 86400) SECOND,
+       NOW(),
+       NOW() - INTERVAL (n % 730) DAY
+FROM (SELECT a.d + b.d * 10 + c.d * 100 + d.d * 1000 + e.d * 10000 + f.d * 100000 + 1 AS n
+      FROM digits a, digits b, digits c, digits d, digits e, digits f) numbers;
+
+ANALYZE TABLE data_categories, datasets;
+
+-- Q1: category + price range, newest first (search page)
+EXPLAIN ANALYZE
+SELECT d.id, d.name, d.price, c.name
+FROM datasets d JOIN data_categories c ON c.id = d.category_id
+WHERE d.status = 'PUBLISHED' AND d.category_id = @first_category + 7
+  AND d.price >= 100 AND d.price <= 250
+ORDER BY d.created_at DESC LIMIT 20;
+
+EXPLAIN ANALYZE
+SELECT d.id, d.name, d.price, c.name
+FROM datasets d IGNORE INDEX (idx_status_category_price, idx_status_region_country)
+JOIN data_categories c ON c.id = d.category_id
+WHERE d.status = 'PUBLISHED' AND d.category_id = @first_category + 7
+  AND d.price >= 100 AND d.price <= 250
+ORDER BY d.created_at DESC LIMIT 20;
+
+-- Q1 count, as issued for totalElements
+EXPLAIN ANALYZE
+SELECT COUNT(d.id) FROM datasets d
+WHERE d.status = 'PUBLISHED' AND d.category_id = @first_category + 7
+  AND d.price >= 100 AND d.price <= 250;
+
+EXPLAIN ANALYZE
+SELECT COUNT(d.id) FROM datasets d IGNORE INDEX (idx_status_category_price, idx_status_region_country)
+WHERE d.status = 'PUBLISHED' AND d.category_id = @first_category + 7
+  AND d.price >= 100 AND d.price <= 250;
+
+-- Q2: region + country
+EXPLAIN ANALYZE
+SELECT d.id, d.name, d.price, c.name
+FROM datasets d JOIN data_categories c ON c.id = d.category_id
+WHERE d.status = 'PUBLISHED' AND d.region = 'Region 3' AND d.country = 'Country 3-2'
+ORDER BY d.created_at DESC LIMIT 20;
+
+EXPLAIN ANALYZE
+SELECT d.id, d.name, d.price, c.name
+FROM datasets d IGNORE INDEX (idx_status_category_price, idx_status_region_country)
+JOIN data_categories c ON c.id = d.category_id
+WHERE d.status = 'PUBLISHED' AND d.region = 'Region 3' AND d.country = 'Country 3-2'
+ORDER BY d.created_at DESC LIMIT 20;
+
+-- Q3: category + region, only the status/category prefix of the index applies
+EXPLAIN ANALYZE
+SELECT d.id, d.name, d.price, c.name
+FROM datasets d JOIN data_categories c ON c.id = d.category_id
+WHERE d.status = 'PUBLISHED' AND d.category_id = @first_category + 3 AND d.region = 'Region 4'
+ORDER BY d.created_at DESC LIMIT 20;
+
+EXPLAIN ANALYZE
+SELECT d.id, d.name, d.price, c.name
+FROM datasets d IGNORE INDEX (idx_status_category_price, idx_status_region_country)
+JOIN data_categories c ON c.id = d.category_id
+WHERE d.status = 'PUBLISHED' AND d.category_id = @first_category + 3 AND d.region = 'Region 4'
+ORDER BY d.created_at DESC LIMIT 20;
+
+-- Keyword + filter, facet index still building: one filtered ID query,
+-- intersected with the keyword hits in the service
+EXPLAIN ANALYZE
+SELECT d.id FROM datasets d
+WHERE d.status = 'PUBLISHED' AND d.category_id = @first_category + 7
+  AND d.price >= 100 AND d.price <= 250;
+
+-- Keyword + filter, search index still building: LIKE on top of the filters
+EXPLAIN ANALYZE
+SELECT d.id, d.name, d.price, c.name
+FROM datasets d JOIN data_categories c ON c.id = d.category_id
+WHERE d.status = 'PUBLISHED' AND d.category_id = @first_category + 7
+  AND d.price >= 100 AND d.price <= 250
+  AND (LOWER(d.name) LIKE '%set 12%' OR LOWER(d.description) LIKE '%set 12%' OR LOWER(d.tags) LIKE '%set 12%')
+ORDER BY d.created_at DESC LIMIT 20;
+
+-- Admin listing count by status (AdminDataService.listDatasets)
+EXPLAIN ANALYZE
+SELECT COUNT(*) FROM datasets WHERE status = 'SUSPENDED';
@@ -49,13 +49,12 @@ CREATE TABLE IF NOT EXISTS datasets (
     api_endpoint VARCHAR(500),
     api_key VARCHAR(100),
     tags TEXT,
-    sample_data TEXT,
-    dataset_schema JSON,
     download_count INT NOT NULL DEFAULT 0,
     view_count INT NOT NULL DEFAULT 0,
     purchase_count INT NOT NULL DEFAULT 0,
     rating DOUBLE NOT NULL DEFAULT 0.0,
     rating_count INT NOT NULL DEFAULT 0,
+    rating_sum BIGINT NOT NULL DEFAULT 0,
     anonymized BOOLEAN NOT NULL DEFAULT TRUE,
     gdpr_compliant BOOLEAN NOT NULL DEFAULT TRUE,
     created_at DATETIME NOT NULL,
@@ -69,9 +68,25 @@ CREATE TABLE IF NOT EXISTS datasets (
     INDEX idx_pricing_model (pricing_model),
     INDEX idx_region (region),
     INDEX idx_country (country),
+    INDEX idx_status_category_price (status, category_id, price),
+    INDEX idx_status_region_country (status, region, country),
     FULLTEXT idx_search (name, description, tags)
     ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- Dataset Details Table (sample data and schema, only read by the detail view)
+CREATE TABLE IF NOT EXISTS dataset_details (
+                                               dataset_id BIGINT PRIMARY KEY,
+                                               sample_data TEXT,
+                                               dataset_schema JSON,
+                                               FOREIGN KEY (dataset_id) REFERENCES datasets(id) ON DELETE CASCADE
+    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Migrating an existing database: copy the blobs over, then drop the old columns
+-- INSERT INTO dataset_details (dataset_id, sample_data, dataset_schema)
+--     SELECT id, sample_data, dataset_schema FROM datasets
+--     WHERE sample_data IS NOT NULL OR dataset_schema IS NOT NULL;
+-- ALTER TABLE datasets DROP COLUMN sample_data, DROP COLUMN dataset_schema;
+
 -- Dataset Accesses Table
 CREATE TABLE IF NOT EXISTS dataset_accesses (
                                                 id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -95,7 +110,8 @@ CREATE TABLE IF NOT EXISTS dataset_accesses (
     INDEX idx_user (user_id),
     INDEX idx_status (status),
     INDEX idx_access_type (access_type),
-    INDEX idx_api_token (api_access_token)
+    INDEX idx_api_token (api_access_token),
+    UNIQUE KEY uk_transaction_id (transaction_id)
     ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- Dataset Ratings Table
@@ -9,6 +9,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.util.Arrays;
 import java.util.List;
@@ -16,6 +17,7 @@ import java.util.List;
 @SpringBootApplication
 @EnableJpaAuditing
 @EnableDiscoveryClient
+@EnableScheduling
 public class DataServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(DataServiceApplication.class, args);
@@ -0,0 +1,83 @@
+package com.nguyenquyen.dev.dataservice.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Tells the API gateway to drop cached responses after catalog writes.
+ * Purges are fire-and-forget: a failed purge only means the stale copy lives
+ * until its TTL expires.
+ */
+@Component
+public class GatewayCacheClient {
+
+    private static final String SIGNATURE_PREFIX = "cache-purge.";
+
+    @Value("${gateway.url:http://localhost:8080}")
+    private String gatewayUrl;
+
+    @Value("${server.servlet.context-path:}")
+    private String contextPath;
+
+    @Value("${internal.auth.secret:${jwt.secret}}")
+    private String internalSecret;
+
+    @Value("${gateway.cache-purge.enabled:true}")
+    private boolean enabled;
+
+    private final WebClient webClient;
+
+    public GatewayCacheClient(WebClient.Builder webClientBuilder) {
+        this.webClient = webClientBuilder.build();
+    }
+
+    public void purgeDataset(Long datasetId) {
+        purge(contextPath + "/api/datasets/public/" + datasetId + "/");
+    }
+
+    public void purgeCategories() {
+        purge(contextPath + "/api/categories");
+    }
+
+    private void purge(String prefix) {
+        if (!enabled) {
+            return;
+        }
+
+        long timestamp = System.currentTimeMillis() / 1000;
+        String signature;
+        try {
+            signature = sign(timestamp + "." + prefix);
+        } catch (GeneralSecurityException e) {
+            System.err.println("Failed to sign gateway cache purge: " + e.getMessage());
+            return;
+        }
+
+        webClient.delete()
+                .uri(gatewayUrl + "/internal/cache?prefix={prefix}", prefix)
+                .header("X-Purge-Timestamp", String.valueOf(timestamp))
+                .header("X-Purge-Signature", signature)
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(Duration.ofSeconds(2))
+                .subscribe(
+                        response -> { },
+                        error -> System.err.println("Gateway cache purge failed for " + prefix + ": " + error.getMessage())
+                );
+    }
+
+    private String sign(String value) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(internalSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        byte[] signature = mac.doFinal((SIGNATURE_PREFIX + value).getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+}
@@ -1,79 +1,54 @@
 package com.nguyenquyen.dev.dataservice.controller;
 
+import com.nguyenquyen.dev.dataservice.client.GatewayCacheClient;
 import com.nguyenquyen.dev.dataservice.dto.response.DatasetStatsResponse;
 import com.nguyenquyen.dev.dataservice.entity.Dataset;
-import com.nguyenquyen.dev.dataservice.entity.DatasetAccess;
-import com.nguyenquyen.dev.dataservice.repository.DataCategoryRepository;
-import com.nguyenquyen.dev.dataservice.repository.DatasetAccessRepository;
 import com.nguyenquyen.dev.dataservice.repository.DatasetRepository;
+import com.nguyenquyen.dev.dataservice.search.DatasetFacetIndex;
+import com.nguyenquyen.dev.dataservice.search.DatasetSearchIndex;
+import com.nguyenquyen.dev.dataservice.service.AdminDataService;
+import com.nguyenquyen.dev.dataservice.service.DatasetStatsService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigDecimal;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/admin")
 @PreAuthorize("hasAuthority('ADMIN')")
 public class AdminDataController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     @Autowired
     private DatasetRepository datasetRepository;
 
     @Autowired
-    private DatasetAccessRepository accessRepository;
+    private DatasetSearchIndex searchIndex;
+
+    @Autowired
+    private DatasetFacetIndex facetIndex;
+
+    @Autowired
+    private DatasetStatsService statsService;
+
+    @Autowired
+    private AdminDataService adminDataService;
 
     @Autowired
-    private DataCategoryRepository categoryRepository;
+    private GatewayCacheClient gatewayCacheClient;
 
     @GetMapping("/stats")
     public ResponseEntity<?> getDatasetStats() {
         try {
-            Long totalDatasets = datasetRepository.count();
-            Long publishedDatasets = datasetRepository.countPublishedDatasets();
-            Long totalDownloads = datasetRepository.sumTotalDownloads();
-            Long totalPurchases = datasetRepository.sumTotalPurchases();
-            Double averageRating = datasetRepository.calculateAverageRating();
-            Long totalConsumers = accessRepository.countTotalConsumers();
-
-            // Count unique providers
-            Long totalProviders = datasetRepository.findAll().stream()
-                    .map(Dataset::getProviderId)
-                    .distinct()
-                    .count();
-
-            // Datasets by category
-            Map<String, Long> datasetsByCategory = new HashMap<>();
-            categoryRepository.findAll().forEach(category -> {
-                long count = datasetRepository.findByCategoryId(category.getId()).size();
-                datasetsByCategory.put(category.getName(), count);
-            });
-
-            // Datasets by type
-            Map<String, Long> datasetsByType = datasetRepository.findAll().stream()
-                    .collect(Collectors.groupingBy(Dataset::getDataType, Collectors.counting()));
-
-            DatasetStatsResponse stats = DatasetStatsResponse.builder()
-                    .totalDatasets(totalDatasets)
-                    .publishedDatasets(publishedDatasets)
-                    .totalDownloads(totalDownloads != null ? totalDownloads : 0L)
-                    .totalPurchases(totalPurchases != null ? totalPurchases : 0L)
-                    .totalRevenue(BigDecimal.ZERO) // Will be calculated from payment service
-                    .averageRating(averageRating != null ? averageRating : 0.0)
-                    .totalProviders(totalProviders)
-                    .totalConsumers(totalConsumers)
-                    .datasetsByCategory(datasetsByCategory)
-                    .datasetsByType(datasetsByType)
-                    .timestamp(LocalDateTime.now())
-                    .build();
-
+            DatasetStatsResponse stats = statsService.getStats();
             return ResponseEntity.ok(stats);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -81,44 +56,36 @@ public class AdminDataController {
         }
     }
 
-    @GetMapping("/datasets")
-    public ResponseEntity<?> getAllDatasets(@RequestParam(required = false) String status) {
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<?> rebuildDatasetStats() {
         try {
-            List<Dataset> datasets;
-
-            if (status != null && !status.isEmpty()) {
-                datasets = datasetRepository.findByStatus(status);
-            } else {
-                datasets = datasetRepository.findAll();
-            }
-
-            List<Map<String, Object>> response = datasets.stream()
-                    .map(d -> {
-                        Map<String, Object> map = new HashMap<>();
-                        map.put("id", d.getId());
-                        map.put("name", d.getName());
-                        map.put("code", d.getCode());
-                        map.put("status", d.getStatus());
-                        map.put("providerName", d.getProviderName());
-                        map.put("category", d.getCategory().getName());
-                        map.put("price", d.getPrice());
-                        map.put("downloadCount", d.getDownloadCount());
-                        map.put("rating", d.getRating());
-                        map.put("createdAt", d.getCreatedAt());
-                        return map;
-                    })
-                    .collect(Collectors.toList());
+            statsService.rebuild();
+            return ResponseEntity.ok(statsService.getStats());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Failed to rebuild stats", "error", e.getMessage()));
+        }
+    }
 
-            return ResponseEntity.ok(Map.of(
-                    "total", response.size(),
-                    "datasets", response
-            ));
+    @GetMapping("/datasets")
+    public ResponseEntity<?> getAllDatasets(@RequestParam(required = false) String status,
+                                            @RequestParam(required = false) Long afterId,
+                                            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(adminDataService.listDatasets(status, afterId, limit));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("message", "Failed to fetch datasets", "error", e.getMessage()));
         }
     }
 
+    @GetMapping(value = "/datasets/stream", produces = NDJSON)
+    public void streamAllDatasets(@RequestParam(required = false) String status,
+                                  HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        adminDataService.streamDatasets(status, response.getOutputStream());
+    }
+
     @PatchMapping("/datasets/{id}/status")
     public ResponseEntity<?> updateDatasetStatus(@PathVariable Long id,
                                                  @RequestParam String status) {
@@ -126,6 +93,8 @@ public class AdminDataController {
             Dataset dataset = datasetRepository.findById(id)
                     .orElseThrow(() -> new RuntimeException("Dataset not found"));
 
+            DatasetStatsService.Entry before = DatasetStatsService.entryOf(dataset);
+
             dataset.setStatus(status);
 
             if ("PUBLISHED".equals(status) && dataset.getPublishedAt() == null) {
@@ -133,6 +102,11 @@ public class AdminDataController {
             }
 
             datasetRepository.save(dataset);
+            searchIndex.index(dataset);
+            facetIndex.index(dataset);
+            statsService.datasetChanged(before, dataset);
+            gatewayCacheClient.purgeDataset(id);
+            gatewayCacheClient.purgeCategories();
 
             return ResponseEntity.ok(Map.of(
                     "message", "Dataset status updated successfully",
@@ -146,35 +120,22 @@ public class AdminDataController {
     }
 
     @GetMapping("/accesses")
-    public ResponseEntity<?> getAllAccesses() {
+    public ResponseEntity<?> getAllAccesses(@RequestParam(required = false) Long afterId,
+                                            @RequestParam(required = false) Integer limit) {
         try {
-            List<DatasetAccess> accesses = accessRepository.findAll();
-
-            List<Map<String, Object>> response = accesses.stream()
-                    .map(a -> {
-                        Map<String, Object> map = new HashMap<>();
-                        map.put("id", a.getId());
-                        map.put("datasetName", a.getDataset().getName());
-                        map.put("userName", a.getUserName());
-                        map.put("userEmail", a.getUserEmail());
-                        map.put("accessType", a.getAccessType());
-                        map.put("status", a.getStatus());
-                        map.put("pricePaid", a.getPricePaid());
-                        map.put("grantedAt", a.getGrantedAt());
-                        return map;
-                    })
-                    .collect(Collectors.toList());
-
-            return ResponseEntity.ok(Map.of(
-                    "total", response.size(),
-                    "accesses", response
-            ));
+            return ResponseEntity.ok(adminDataService.listAccesses(afterId, limit));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("message", "Failed to fetch accesses", "error", e.getMessage()));
         }
     }
 
+    @GetMapping(value = "/accesses/stream", produces = NDJSON)
+    public void streamAllAccesses(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        adminDataService.streamAccesses(response.getOutputStream());
+    }
+
     @GetMapping("/providers")
     public ResponseEntity<?> getProvidersStats() {
         try {
@@ -1,6 +1,8 @@
 package com.nguyenquyen.dev.dataservice.controller;
 
+import com.nguyenquyen.dev.dataservice.dto.request.AccessGrantBatchRequest;
 import com.nguyenquyen.dev.dataservice.dto.request.DatasetAccessRequest;
+import com.nguyenquyen.dev.dataservice.dto.response.AccessGrantResultResponse;
 import com.nguyenquyen.dev.dataservice.dto.response.DatasetAccessResponse;
 import com.nguyenquyen.dev.dataservice.service.DatasetAccessService;
 import jakarta.validation.Valid;
@@ -32,6 +34,18 @@ public class DatasetAccessController {
         }
     }
 
+    @PostMapping("/grant-batch")
+    @PreAuthorize("hasAuthority('SERVICE')")
+    public ResponseEntity<?> grantAccessBatch(@Valid @RequestBody AccessGrantBatchRequest request) {
+        try {
+            List<AccessGrantResultResponse> results = accessService.grantAccessBatch(request.getGrants());
+            return ResponseEntity.ok(results);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Failed to grant access batch", "error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/my-accesses")
     public ResponseEntity<?> getMyAccesses() {
         try {
@@ -0,0 +1,27 @@
+package com.nguyenquyen.dev.dataservice.dto.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Columns shown in the admin access list. Selected directly by
+ * DatasetAccessRepository so no DatasetAccess or Dataset entity is loaded.
+ */
+public interface AccessAdminRow {
+
+    Long getId();
+
+    String getDatasetName();
+
+    String getUserName();
+
+    String getUserEmail();
+
+    String getAccessType();
+
+    String getStatus();
+
+    BigDecimal getPricePaid();
+
+    LocalDateTime getGrantedAt();
+}
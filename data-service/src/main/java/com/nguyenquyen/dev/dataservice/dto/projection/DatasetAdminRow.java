@@ -0,0 +1,31 @@
+package com.nguyenquyen.dev.dataservice.dto.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Columns shown in the admin dataset list. Selected directly by
+ * DatasetRepository so no Dataset entity or category proxy is loaded.
+ */
+public interface DatasetAdminRow {
+
+    Long getId();
+
+    String getName();
+
+    String getCode();
+
+    String getStatus();
+
+    String getProviderName();
+
+    String getCategory();
+
+    BigDecimal getPrice();
+
+    Integer getDownloadCount();
+
+    Double getRating();
+
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,46 @@
+package com.nguyenquyen.dev.dataservice.dto.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Card-level columns for dataset lists and search results. Selected directly
+ * by DatasetRepository.findSummaries, so the description is never read and
+ * sample data and schema (in dataset_details) are not touched.
+ */
+public record DatasetSummary(
+        Long id,
+        String name,
+        String code,
+        Long categoryId,
+        String categoryName,
+        Long providerId,
+        String providerName,
+        String dataType,
+        String format,
+        String status,
+        String pricingModel,
+        BigDecimal price,
+        String currency,
+        String usageRights,
+        String region,
+        String country,
+        String city,
+        LocalDateTime dataStartDate,
+        LocalDateTime dataEndDate,
+        String fileUrl,
+        Long fileSize,
+        Integer recordCount,
+        String apiEndpoint,
+        String tags,
+        Integer downloadCount,
+        Integer viewCount,
+        Integer purchaseCount,
+        Double rating,
+        Integer ratingCount,
+        Boolean anonymized,
+        Boolean gdprCompliant,
+        LocalDateTime createdAt,
+        LocalDateTime publishedAt
+) {
+}
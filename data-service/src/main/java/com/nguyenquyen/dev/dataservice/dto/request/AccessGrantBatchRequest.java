@@ -0,0 +1,18 @@
+package com.nguyenquyen.dev.dataservice.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccessGrantBatchRequest {
+
+    @NotEmpty(message = "Grants are required")
+    @Size(max = 500, message = "At most 500 grants per batch")
+    private List<@Valid AccessGrantItemRequest> grants;
+}
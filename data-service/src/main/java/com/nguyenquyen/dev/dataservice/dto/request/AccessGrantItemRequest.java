@@ -0,0 +1,29 @@
+package com.nguyenquyen.dev.dataservice.dto.request;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccessGrantItemRequest {
+
+    @NotBlank(message = "Transaction ID is required")
+    private String transactionId; // Idempotency key from Payment Service
+
+    @NotNull(message = "Dataset ID is required")
+    private Long datasetId;
+
+    @NotNull(message = "User ID is required")
+    private Long userId;
+
+    private String userEmail;
+    private String userName;
+
+    @NotBlank(message = "Access type is required")
+    private String accessType; // DOWNLOAD, API, SUBSCRIPTION
+
+    private Integer durationDays; // For subscription
+    private Integer apiCallsLimit; // For API access
+}
@@ -23,7 +23,7 @@ public class DatasetSearchRequest {
     private BigDecimal maxPrice;
     private LocalDateTime startDate;
     private LocalDateTime endDate;
-    private String sortBy = "createdAt"; // createdAt, price, rating, downloadCount
+    private String sortBy = "createdAt"; // createdAt, price, rating, downloadCount, relevance (keyword searches)
     private String sortDirection = "DESC"; // ASC, DESC
     private Integer page = 0;
     private Integer size = 20;
@@ -0,0 +1,16 @@
+package com.nguyenquyen.dev.dataservice.dto.response;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccessGrantResultResponse {
+
+    private String transactionId;
+    private String status; // GRANTED, DUPLICATE, REJECTED
+    private Long accessId;
+    private String message;
+}
@@ -1,8 +1,10 @@
 package com.nguyenquyen.dev.dataservice.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 
 import java.util.List;
+import java.util.Map;
 
 
 @Getter
@@ -19,4 +21,8 @@ public class PageResponse<T> {
     private Integer totalPages;
     private Boolean last;
     private Boolean first;
+
+    // Dataset search only: facet -> value -> count for the current filter
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Map<String, Integer>> facets;
 }
\ No newline at end of file
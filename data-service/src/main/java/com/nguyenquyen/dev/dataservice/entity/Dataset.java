@@ -11,7 +11,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "datasets")
+@Table(name = "datasets", indexes = {
+        // Match the common search filter combinations, see DatasetSpecifications
+        @Index(name = "idx_status_category_price", columnList = "status, category_id, price"),
+        @Index(name = "idx_status_region_country", columnList = "status, region, country")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -106,33 +110,36 @@ public class Dataset {
     @Column(columnDefinition = "TEXT")
     private String tags; // comma-separated
 
-    @Column(columnDefinition = "TEXT")
-    private String sampleData;
-
-    @Column(columnDefinition = "JSON")
-    private String datasetSchema; // JSON schema
+    // Sample data and schema live in DatasetDetail, so list queries never read them
 
     // Statistics
-    @Column(nullable = false)
+    // View/download counts are only ever incremented in SQL by DatasetCounterService
+    @Column(nullable = false, updatable = false)
     @Builder.Default
     private Integer downloadCount = 0;
 
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     @Builder.Default
     private Integer viewCount = 0;
 
-    @Column(nullable = false)
+    // Only ever incremented in SQL by DatasetAccessService
+    @Column(nullable = false, updatable = false)
     @Builder.Default
     private Integer purchaseCount = 0;
 
-    @Column(nullable = false)
+    // Rating aggregates are only ever changed in SQL by DatasetRatingService, rating = ratingSum / ratingCount
+    @Column(nullable = false, updatable = false)
     @Builder.Default
     private Double rating = 0.0;
 
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     @Builder.Default
     private Integer ratingCount = 0;
 
+    @Column(nullable = false, updatable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    @Builder.Default
+    private Long ratingSum = 0L;
+
     // Privacy
     @Column(nullable = false)
     private Boolean anonymized = true;
@@ -48,8 +48,8 @@ public class DatasetAccess {
     @Column(nullable = false)
     private BigDecimal pricePaid = BigDecimal.ZERO;
 
-    @Column(length = 100)
-    private String transactionId; // Reference to Payment Service
+    @Column(length = 100, unique = true)
+    private String transactionId; // Reference to Payment Service, idempotency key for grants
 
     // API Access
     @Column(length = 500)
@@ -58,7 +58,8 @@ public class DatasetAccess {
     @Column(nullable = false)
     private Integer apiCallsLimit = 0;
 
-    @Column(nullable = false)
+    // Only ever incremented in SQL by ApiQuotaMeter
+    @Column(nullable = false, updatable = false)
     private Integer apiCallsUsed = 0;
 
     // Download tracking
@@ -0,0 +1,29 @@
+package com.nguyenquyen.dev.dataservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Large per-dataset payloads that only the detail view needs. Kept out of the
+ * datasets table so list and search queries do not read them.
+ */
+@Entity
+@Table(name = "dataset_details")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DatasetDetail {
+
+    // Same value as datasets.id
+    @Id
+    @Column(name = "dataset_id")
+    private Long datasetId;
+
+    @Column(columnDefinition = "TEXT")
+    private String sampleData;
+
+    @Column(columnDefinition = "JSON")
+    private String datasetSchema; // JSON schema
+}
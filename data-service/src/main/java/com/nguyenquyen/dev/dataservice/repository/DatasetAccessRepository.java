@@ -1,20 +1,33 @@
 package com.nguyenquyen.dev.dataservice.repository;
+import com.nguyenquyen.dev.dataservice.dto.projection.AccessAdminRow;
 import com.nguyenquyen.dev.dataservice.entity.DatasetAccess;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 @Repository
 public interface DatasetAccessRepository extends JpaRepository<DatasetAccess, Long> {
 
+    String ADMIN_ROW_SELECT = "SELECT da.id AS id, d.name AS datasetName, da.userName AS userName, " +
+            "da.userEmail AS userEmail, da.accessType AS accessType, da.status AS status, " +
+            "da.pricePaid AS pricePaid, da.grantedAt AS grantedAt " +
+            "FROM DatasetAccess da JOIN da.dataset d ";
+
     List<DatasetAccess> findByUserId(Long userId);
 
     List<DatasetAccess> findByDatasetId(Long datasetId);
 
+    Optional<DatasetAccess> findByApiAccessToken(String apiAccessToken);
+
     Optional<DatasetAccess> findByUserIdAndDatasetIdAndStatus(Long userId, Long datasetId, String status);
 
     @Query("SELECT da FROM DatasetAccess da WHERE da.userId = :userId " +
@@ -25,6 +38,14 @@ public interface DatasetAccessRepository extends JpaRepository<DatasetAccess, Lo
                                              @Param("datasetId") Long datasetId,
                                              @Param("now") LocalDateTime now);
 
+    @Query("SELECT DISTINCT da.dataset.id FROM DatasetAccess da WHERE da.userId = :userId " +
+            "AND da.dataset.id IN :datasetIds " +
+            "AND da.status = 'ACTIVE' " +
+            "AND (da.expiresAt IS NULL OR da.expiresAt > :now)")
+    List<Long> findActiveDatasetIds(@Param("userId") Long userId,
+                                    @Param("datasetIds") Collection<Long> datasetIds,
+                                    @Param("now") LocalDateTime now);
+
     @Query("SELECT COUNT(DISTINCT da.userId) FROM DatasetAccess da WHERE da.dataset.id = :datasetId")
     Long countUniqueUsers(@Param("datasetId") Long datasetId);
 
@@ -32,4 +53,20 @@ public interface DatasetAccessRepository extends JpaRepository<DatasetAccess, Lo
     Long countTotalConsumers();
 
     Boolean existsByUserIdAndDatasetId(Long userId, Long datasetId);
+
+    Boolean existsByUserId(Long userId);
+
+    @Query("SELECT da.transactionId, da.id FROM DatasetAccess da WHERE da.transactionId IN :transactionIds")
+    List<Object[]> findIdsByTransactionIds(@Param("transactionIds") Collection<String> transactionIds);
+
+    @Query("SELECT da.id FROM DatasetAccess da WHERE da.id IN :ids AND da.status <> 'ACTIVE'")
+    List<Long> findInactiveIds(@Param("ids") Collection<Long> ids);
+
+    // Keyset pagination for the admin list: pass the last seen id as afterId
+    @Query(ADMIN_ROW_SELECT + "WHERE da.id > :afterId ORDER BY da.id")
+    List<AccessAdminRow> findAdminRows(@Param("afterId") Long afterId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = DatasetRepository.STREAMING_FETCH_SIZE))
+    @Query(ADMIN_ROW_SELECT + "ORDER BY da.id")
+    Stream<AccessAdminRow> streamAdminRows();
 }
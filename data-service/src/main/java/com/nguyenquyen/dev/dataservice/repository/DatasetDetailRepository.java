@@ -0,0 +1,9 @@
+package com.nguyenquyen.dev.dataservice.repository;
+
+import com.nguyenquyen.dev.dataservice.entity.DatasetDetail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DatasetDetailRepository extends JpaRepository<DatasetDetail, Long> {
+}
@@ -1,59 +1,44 @@
 package com.nguyenquyen.dev.dataservice.repository;
 
+import com.nguyenquyen.dev.dataservice.dto.projection.DatasetAdminRow;
 import com.nguyenquyen.dev.dataservice.entity.Dataset;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface DatasetRepository extends JpaRepository<Dataset, Long> {
+public interface DatasetRepository extends JpaRepository<Dataset, Long>, JpaSpecificationExecutor<Dataset>,
+        DatasetRepositoryCustom {
 
-    Optional<Dataset> findByCode(String code);
+    String ADMIN_ROW_SELECT = "SELECT d.id AS id, d.name AS name, d.code AS code, d.status AS status, " +
+            "d.providerName AS providerName, c.name AS category, d.price AS price, " +
+            "d.downloadCount AS downloadCount, d.rating AS rating, d.createdAt AS createdAt " +
+            "FROM Dataset d JOIN d.category c ";
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the result set
+    String STREAMING_FETCH_SIZE = "-2147483648";
 
-    List<Dataset> findByProviderId(Long providerId);
+    Optional<Dataset> findByCode(String code);
 
     List<Dataset> findByStatus(String status);
 
+    Page<Dataset> findByStatus(String status, Pageable pageable);
+
     List<Dataset> findByCategoryId(Long categoryId);
 
     List<Dataset> findByStatusOrderByPublishedAtDesc(String status);
 
-    @Query("SELECT d FROM Dataset d WHERE d.status = :status AND " +
-            "(:keyword IS NULL OR LOWER(d.name) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-            "OR LOWER(d.description) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-            "OR LOWER(d.tags) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    Page<Dataset> searchDatasets(@Param("status") String status,
-                                 @Param("keyword") String keyword,
-                                 Pageable pageable);
-
-    @Query("SELECT d FROM Dataset d WHERE d.status = :status " +
-            "AND (:categoryId IS NULL OR d.category.id = :categoryId) " +
-            "AND (:dataType IS NULL OR d.dataType = :dataType) " +
-            "AND (:format IS NULL OR d.format = :format) " +
-            "AND (:pricingModel IS NULL OR d.pricingModel = :pricingModel) " +
-            "AND (:region IS NULL OR d.region = :region) " +
-            "AND (:country IS NULL OR d.country = :country) " +
-            "AND (:usageRights IS NULL OR d.usageRights = :usageRights) " +
-            "AND (:minPrice IS NULL OR d.price >= :minPrice) " +
-            "AND (:maxPrice IS NULL OR d.price <= :maxPrice)")
-    Page<Dataset> advancedSearch(@Param("status") String status,
-                                 @Param("categoryId") Long categoryId,
-                                 @Param("dataType") String dataType,
-                                 @Param("format") String format,
-                                 @Param("pricingModel") String pricingModel,
-                                 @Param("region") String region,
-                                 @Param("country") String country,
-                                 @Param("usageRights") String usageRights,
-                                 @Param("minPrice") BigDecimal minPrice,
-                                 @Param("maxPrice") BigDecimal maxPrice,
-                                 Pageable pageable);
+    long countByStatus(String status);
 
     @Query("SELECT COUNT(d) FROM Dataset d WHERE d.status = 'PUBLISHED'")
     Long countPublishedDatasets();
@@ -67,5 +52,34 @@ public interface DatasetRepository extends JpaRepository<Dataset, Long> {
     @Query("SELECT AVG(d.rating) FROM Dataset d WHERE d.ratingCount > 0")
     Double calculateAverageRating();
 
+    @Query("SELECT COALESCE(SUM(d.rating), 0), COUNT(d) FROM Dataset d WHERE d.ratingCount > 0")
+    List<Object[]> sumRatingsOfRatedDatasets();
+
+    @Query("SELECT d.category.id, COUNT(d) FROM Dataset d GROUP BY d.category.id")
+    List<Object[]> countByCategory();
+
+    @Query("SELECT d.dataType, COUNT(d) FROM Dataset d GROUP BY d.dataType")
+    List<Object[]> countByDataType();
+
+    @Query("SELECT d.providerId, COUNT(d) FROM Dataset d GROUP BY d.providerId")
+    List<Object[]> countByProvider();
+
     Boolean existsByCode(String code);
+
+    // Keyset pagination for the admin list: pass the last seen id as afterId
+    @Query(ADMIN_ROW_SELECT + "WHERE d.id > :afterId ORDER BY d.id")
+    List<DatasetAdminRow> findAdminRows(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(ADMIN_ROW_SELECT + "WHERE d.status = :status AND d.id > :afterId ORDER BY d.id")
+    List<DatasetAdminRow> findAdminRowsByStatus(@Param("status") String status,
+                                                @Param("afterId") Long afterId,
+                                                Pageable pageable);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = STREAMING_FETCH_SIZE))
+    @Query(ADMIN_ROW_SELECT + "ORDER BY d.id")
+    Stream<DatasetAdminRow> streamAdminRows();
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = STREAMING_FETCH_SIZE))
+    @Query(ADMIN_ROW_SELECT + "WHERE d.status = :status ORDER BY d.id")
+    Stream<DatasetAdminRow> streamAdminRowsByStatus(@Param("status") String status);
 }
\ No newline at end of file
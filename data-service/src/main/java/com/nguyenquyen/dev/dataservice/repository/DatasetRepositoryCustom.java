@@ -0,0 +1,25 @@
+package com.nguyenquyen.dev.dataservice.repository;
+
+import com.nguyenquyen.dev.dataservice.dto.projection.DatasetSummary;
+import com.nguyenquyen.dev.dataservice.entity.Dataset;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface DatasetRepositoryCustom {
+
+    /**
+     * IDs of the datasets matching the specification, without loading the rows.
+     */
+    List<Long> findIds(Specification<Dataset> spec);
+
+    /**
+     * Card-level columns of the matching datasets, see DatasetSummary.
+     */
+    Page<DatasetSummary> findSummaries(Specification<Dataset> spec, Pageable pageable);
+
+    List<DatasetSummary> findSummaries(Specification<Dataset> spec, Sort sort);
+}
@@ -0,0 +1,93 @@
+package com.nguyenquyen.dev.dataservice.repository;
+
+import com.nguyenquyen.dev.dataservice.dto.projection.DatasetSummary;
+import com.nguyenquyen.dev.dataservice.entity.DataCategory;
+import com.nguyenquyen.dev.dataservice.entity.Dataset;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+public class DatasetRepositoryCustomImpl implements DatasetRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> findIds(Specification<Dataset> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Dataset> root = query.from(Dataset.class);
+
+        query.select(root.get("id")).where(spec.toPredicate(root, query, cb));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public Page<DatasetSummary> findSummaries(Specification<Dataset> spec, Pageable pageable) {
+        TypedQuery<DatasetSummary> query = summaryQuery(spec, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(spec));
+    }
+
+    @Override
+    public List<DatasetSummary> findSummaries(Specification<Dataset> spec, Sort sort) {
+        return summaryQuery(spec, sort).getResultList();
+    }
+
+    private TypedQuery<DatasetSummary> summaryQuery(Specification<Dataset> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<DatasetSummary> query = cb.createQuery(DatasetSummary.class);
+        Root<Dataset> root = query.from(Dataset.class);
+        Join<Dataset, DataCategory> category = root.join("category");
+
+        // Argument order must match the DatasetSummary components
+        query.select(cb.construct(DatasetSummary.class,
+                root.get("id"), root.get("name"), root.get("code"),
+                category.get("id"), category.get("name"),
+                root.get("providerId"), root.get("providerName"),
+                root.get("dataType"), root.get("format"), root.get("status"),
+                root.get("pricingModel"), root.get("price"), root.get("currency"), root.get("usageRights"),
+                root.get("region"), root.get("country"), root.get("city"),
+                root.get("dataStartDate"), root.get("dataEndDate"),
+                root.get("fileUrl"), root.get("fileSize"), root.get("recordCount"), root.get("apiEndpoint"),
+                root.get("tags"),
+                root.get("downloadCount"), root.get("viewCount"), root.get("purchaseCount"),
+                root.get("rating"), root.get("ratingCount"),
+                root.get("anonymized"), root.get("gdprCompliant"),
+                root.get("createdAt"), root.get("publishedAt")));
+        query.where(spec.toPredicate(root, query, cb));
+
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<Dataset> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Dataset> root = query.from(Dataset.class);
+
+        query.select(cb.count(root)).where(spec.toPredicate(root, query, cb));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
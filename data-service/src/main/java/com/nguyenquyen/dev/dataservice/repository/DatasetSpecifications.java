@@ -0,0 +1,108 @@
+package com.nguyenquyen.dev.dataservice.repository;
+
+import com.nguyenquyen.dev.dataservice.dto.request.DatasetSearchRequest;
+import com.nguyenquyen.dev.dataservice.entity.Dataset;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds dataset search queries from only the filters that are actually set,
+ * so MySQL sees plain equality/range predicates it can match against the
+ * composite indexes instead of a chain of (:x IS NULL OR ...) terms.
+ */
+public final class DatasetSpecifications {
+
+    private DatasetSpecifications() {
+    }
+
+    public static Specification<Dataset> search(String status, DatasetSearchRequest request) {
+        return (root, query, cb) -> {
+            // Equality columns first, in index order: status, category, region, country
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("status"), status));
+
+            if (request.getCategoryId() != null) {
+                predicates.add(cb.equal(root.get("category").get("id"), request.getCategoryId()));
+            }
+            if (hasText(request.getRegion())) {
+                predicates.add(cb.equal(root.get("region"), request.getRegion()));
+            }
+            if (hasText(request.getCountry())) {
+                predicates.add(cb.equal(root.get("country"), request.getCountry()));
+            }
+            if (hasText(request.getDataType())) {
+                predicates.add(cb.equal(root.get("dataType"), request.getDataType()));
+            }
+            if (hasText(request.getFormat())) {
+                predicates.add(cb.equal(root.get("format"), request.getFormat()));
+            }
+            if (hasText(request.getPricingModel())) {
+                predicates.add(cb.equal(root.get("pricingModel"), request.getPricingModel()));
+            }
+            if (hasText(request.getUsageRights())) {
+                predicates.add(cb.equal(root.get("usageRights"), request.getUsageRights()));
+            }
+            if (request.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), request.getMinPrice()));
+            }
+            if (request.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), request.getMaxPrice()));
+            }
+            // Datasets whose time range overlaps the requested one
+            if (request.getStartDate() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("dataEndDate"), request.getStartDate()));
+            }
+            if (request.getEndDate() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("dataStartDate"), request.getEndDate()));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * LIKE match on name, description and tags. Only used while the
+     * in-memory search index is not available.
+     */
+    public static Specification<Dataset> keywordLike(String keyword) {
+        return (root, query, cb) -> {
+            String pattern = "%" + keyword.toLowerCase(Locale.ROOT) + "%";
+            return cb.or(
+                    cb.like(cb.lower(root.get("name")), pattern),
+                    cb.like(cb.lower(root.get("description")), pattern),
+                    cb.like(cb.lower(root.get("tags")), pattern)
+            );
+        };
+    }
+
+    public static Specification<Dataset> providedBy(Long providerId) {
+        return (root, query, cb) -> cb.equal(root.get("providerId"), providerId);
+    }
+
+    public static Specification<Dataset> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static boolean hasFilters(DatasetSearchRequest request) {
+        return request.getCategoryId() != null
+                || hasText(request.getDataType())
+                || hasText(request.getFormat())
+                || hasText(request.getPricingModel())
+                || hasText(request.getRegion())
+                || hasText(request.getCountry())
+                || hasText(request.getUsageRights())
+                || request.getMinPrice() != null
+                || request.getMaxPrice() != null
+                || request.getStartDate() != null
+                || request.getEndDate() != null;
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
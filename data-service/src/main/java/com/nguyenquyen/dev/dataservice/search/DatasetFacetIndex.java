@@ -0,0 +1,344 @@
+package com.nguyenquyen.dev.dataservice.search;
+
+import com.nguyenquyen.dev.dataservice.dto.request.DatasetSearchRequest;
+import com.nguyenquyen.dev.dataservice.entity.Dataset;
+import com.nguyenquyen.dev.dataservice.repository.DatasetRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap index over PUBLISHED datasets for facet counts.
+ * Every published dataset gets a small integer ordinal, and every facet value
+ * keeps a BitSet of the ordinals that have it. Counting a facet for the current
+ * filter is a handful of BitSet intersections, no COUNT query per value.
+ *
+ * Counts for a facet ignore that facet's own filter, so the UI can show how
+ * many results picking another value of it would give.
+ */
+@Component
+public class DatasetFacetIndex {
+
+    public static final String CATEGORY = "category"; // keyed by category id
+    public static final String FORMAT = "format";
+    public static final String DATA_TYPE = "dataType";
+    public static final String PRICING_MODEL = "pricingModel";
+    public static final String REGION = "region";
+    public static final String USAGE_RIGHTS = "usageRights";
+
+    // Filtered on but not returned as a facet
+    private static final String COUNTRY = "country";
+
+    private static final List<String> FACETS = List.of(CATEGORY, FORMAT, DATA_TYPE, PRICING_MODEL, REGION, USAGE_RIGHTS);
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    @Autowired
+    private DatasetRepository datasetRepository;
+
+    @Value("${search.facets.enabled:true}")
+    private boolean enabled;
+
+    // dimension -> value -> ordinals having that value
+    private final Map<String, Map<String, BitSet>> bitmaps = new HashMap<>();
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+
+    // Per ordinal: indexed values (to unindex) and range attributes
+    private final List<Map<String, String>> values = new ArrayList<>();
+    private final List<BigDecimal> prices = new ArrayList<>();
+    private final List<LocalDateTime> startDates = new ArrayList<>();
+    private final List<LocalDateTime> endDates = new ArrayList<>();
+
+    private final BitSet live = new BitSet();
+
+    // Ordinals of removed datasets, reused so the bitsets stay dense
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        ready = false;
+
+        lock.writeLock().lock();
+        try {
+            bitmaps.clear();
+            ordinals.clear();
+            values.clear();
+            prices.clear();
+            startDates.clear();
+            endDates.clear();
+            live.clear();
+            freeOrdinals.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        int pageNumber = 0;
+        Page<Dataset> page;
+        do {
+            page = datasetRepository.findByStatus("PUBLISHED",
+                    PageRequest.of(pageNumber++, REBUILD_BATCH_SIZE, Sort.by("id")));
+            page.getContent().forEach(this::index);
+        } while (page.hasNext());
+
+        ready = true;
+        System.out.println("Dataset facet index built: " + live.cardinality() + " published datasets indexed");
+    }
+
+    /**
+     * Adds or refreshes a dataset. Datasets that are not PUBLISHED are removed,
+     * so this is safe to call after any write.
+     */
+    public void index(Dataset dataset) {
+        if (!enabled || dataset == null || dataset.getId() == null) {
+            return;
+        }
+
+        if (!"PUBLISHED".equals(dataset.getStatus())) {
+            remove(dataset.getId());
+            return;
+        }
+
+        Map<String, String> datasetValues = new HashMap<>();
+        put(datasetValues, CATEGORY, dataset.getCategory() != null ? String.valueOf(dataset.getCategory().getId()) : null);
+        put(datasetValues, FORMAT, dataset.getFormat());
+        put(datasetValues, DATA_TYPE, dataset.getDataType());
+        put(datasetValues, PRICING_MODEL, dataset.getPricingModel());
+        put(datasetValues, REGION, dataset.getRegion());
+        put(datasetValues, USAGE_RIGHTS, dataset.getUsageRights());
+        put(datasetValues, COUNTRY, dataset.getCountry());
+
+        lock.writeLock().lock();
+        try {
+            unindex(dataset.getId());
+
+            int ordinal = allocate(dataset.getId());
+            values.set(ordinal, datasetValues);
+            prices.set(ordinal, dataset.getPrice());
+            startDates.set(ordinal, dataset.getDataStartDate());
+            endDates.set(ordinal, dataset.getDataEndDate());
+            datasetValues.forEach((dimension, value) ->
+                    bitmaps.computeIfAbsent(dimension, d -> new HashMap<>())
+                            .computeIfAbsent(value, v -> new BitSet()).set(ordinal));
+            live.set(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long datasetId) {
+        if (!enabled || datasetId == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            unindex(datasetId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Facet counts for the filters in the request.
+     *
+     * @param keywordIds datasets matching the keyword, or null when there is no keyword
+     * @return facet -> value -> number of datasets, values without hits are left out
+     */
+    public Map<String, Map<String, Integer>> facetCounts(DatasetSearchRequest request, Collection<Long> keywordIds) {
+        Map<String, String> selected = selectedValues(request);
+
+        lock.readLock().lock();
+        try {
+            // Everything that is not a facet of its own: keyword, price and date range
+            BitSet base = (BitSet) live.clone();
+            if (keywordIds != null) {
+                BitSet keywordHits = new BitSet();
+                keywordIds.forEach(id -> {
+                    Integer ordinal = ordinals.get(id);
+                    if (ordinal != null) {
+                        keywordHits.set(ordinal);
+                    }
+                });
+                base.and(keywordHits);
+            }
+            applyRanges(base, request);
+
+            Map<String, BitSet> selections = new HashMap<>();
+            selected.forEach((dimension, value) ->
+                    selections.put(dimension, bitmaps.getOrDefault(dimension, Map.of()).getOrDefault(value, new BitSet())));
+
+            Map<String, Map<String, Integer>> result = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                BitSet candidates = (BitSet) base.clone();
+                selections.forEach((dimension, bits) -> {
+                    if (!dimension.equals(facet)) {
+                        candidates.and(bits);
+                    }
+                });
+
+                Map<String, Integer> counts = new TreeMap<>();
+                bitmaps.getOrDefault(facet, Map.of()).forEach((value, bits) -> {
+                    int count = countIntersection(candidates, bits);
+                    if (count > 0) {
+                        counts.put(value, count);
+                    }
+                });
+                result.put(facet, counts);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keeps the datasets that pass every filter in the request, in the given
+     * order. Costs one lookup per ID, so ranked keyword hits can be narrowed
+     * without a query.
+     */
+    public List<Long> retainMatching(List<Long> datasetIds, DatasetSearchRequest request) {
+        Map<String, String> selected = selectedValues(request);
+
+        lock.readLock().lock();
+        try {
+            List<BitSet> selections = new ArrayList<>();
+            selected.forEach((dimension, value) ->
+                    selections.add(bitmaps.getOrDefault(dimension, Map.of()).getOrDefault(value, new BitSet())));
+
+            List<Long> matching = new ArrayList<>();
+            for (Long id : datasetIds) {
+                Integer ordinal = ordinals.get(id);
+                if (ordinal != null && inRange(ordinal, request)
+                        && selections.stream().allMatch(bits -> bits.get(ordinal))) {
+                    matching.add(id);
+                }
+            }
+            return matching;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    private static Map<String, String> selectedValues(DatasetSearchRequest request) {
+        Map<String, String> selected = new HashMap<>();
+        put(selected, CATEGORY, request.getCategoryId() != null ? String.valueOf(request.getCategoryId()) : null);
+        put(selected, FORMAT, request.getFormat());
+        put(selected, DATA_TYPE, request.getDataType());
+        put(selected, PRICING_MODEL, request.getPricingModel());
+        put(selected, REGION, request.getRegion());
+        put(selected, USAGE_RIGHTS, request.getUsageRights());
+        put(selected, COUNTRY, request.getCountry());
+        return selected;
+    }
+
+    // Caller must hold the read lock
+    private void applyRanges(BitSet candidates, DatasetSearchRequest request) {
+        if (request.getMinPrice() == null && request.getMaxPrice() == null
+                && request.getStartDate() == null && request.getEndDate() == null) {
+            return;
+        }
+
+        for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+            if (!inRange(ordinal, request)) {
+                candidates.clear(ordinal);
+            }
+        }
+    }
+
+    // Same semantics as DatasetSpecifications.search
+    private boolean inRange(int ordinal, DatasetSearchRequest request) {
+        BigDecimal price = prices.get(ordinal);
+        if (request.getMinPrice() != null && (price == null || price.compareTo(request.getMinPrice()) < 0)) {
+            return false;
+        }
+        if (request.getMaxPrice() != null && (price == null || price.compareTo(request.getMaxPrice()) > 0)) {
+            return false;
+        }
+        LocalDateTime end = endDates.get(ordinal);
+        if (request.getStartDate() != null && (end == null || end.isBefore(request.getStartDate()))) {
+            return false;
+        }
+        LocalDateTime start = startDates.get(ordinal);
+        return request.getEndDate() == null || (start != null && !start.isAfter(request.getEndDate()));
+    }
+
+    // Caller must hold the write lock
+    private int allocate(Long datasetId) {
+        Integer ordinal = freeOrdinals.poll();
+        if (ordinal == null) {
+            ordinal = values.size();
+            values.add(null);
+            prices.add(null);
+            startDates.add(null);
+            endDates.add(null);
+        }
+        ordinals.put(datasetId, ordinal);
+        return ordinal;
+    }
+
+    // Caller must hold the write lock
+    private void unindex(Long datasetId) {
+        Integer ordinal = ordinals.remove(datasetId);
+        if (ordinal == null) {
+            return;
+        }
+
+        values.get(ordinal).forEach((dimension, value) -> {
+            Map<String, BitSet> dimensionBitmaps = bitmaps.get(dimension);
+            BitSet bits = dimensionBitmaps.get(value);
+            if (bits != null) {
+                bits.clear(ordinal);
+                if (bits.isEmpty()) {
+                    dimensionBitmaps.remove(value);
+                }
+            }
+        });
+
+        live.clear(ordinal);
+        values.set(ordinal, null);
+        prices.set(ordinal, null);
+        startDates.set(ordinal, null);
+        endDates.set(ordinal, null);
+        freeOrdinals.push(ordinal);
+    }
+
+    private static void put(Map<String, String> target, String dimension, String value) {
+        if (value != null && !value.isBlank()) {
+            target.put(dimension, value);
+        }
+    }
+
+    private static int countIntersection(BitSet a, BitSet b) {
+        BitSet smaller = a.length() <= b.length() ? a : b;
+        BitSet other = smaller == a ? b : a;
+        BitSet copy = (BitSet) smaller.clone();
+        copy.and(other);
+        return copy.cardinality();
+    }
+}
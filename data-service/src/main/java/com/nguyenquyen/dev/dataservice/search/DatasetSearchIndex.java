@@ -0,0 +1,278 @@
+package com.nguyenquyen.dev.dataservice.search;
+
+import com.nguyenquyen.dev.dataservice.entity.Dataset;
+import com.nguyenquyen.dev.dataservice.repository.DatasetRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over PUBLISHED datasets.
+ * Name, tags and description are tokenized into one posting list per term and
+ * queries are ranked with BM25, so keyword search never scans the datasets table.
+ */
+@Component
+public class DatasetSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // Field boosts: a hit in the name matters more than one in the description
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float TAGS_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    @Autowired
+    private DatasetRepository datasetRepository;
+
+    @Value("${search.index.enabled:true}")
+    private boolean enabled;
+
+    // term -> (datasetId -> weighted term frequency)
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+
+    // datasetId -> terms indexed for it, used to unindex on update/delete
+    private final Map<Long, Set<String>> documentTerms = new HashMap<>();
+
+    // datasetId -> weighted document length
+    private final Map<Long, Float> documentLengths = new HashMap<>();
+
+    private double totalLength = 0;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reloads the whole index from the database, one page at a time.
+     * Searches fall back to the database until the rebuild has finished.
+     */
+    public void rebuild() {
+        ready = false;
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documentTerms.clear();
+            documentLengths.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        int pageNumber = 0;
+        Page<Dataset> page;
+        do {
+            page = datasetRepository.findByStatus("PUBLISHED",
+                    PageRequest.of(pageNumber++, REBUILD_BATCH_SIZE, Sort.by("id")));
+            page.getContent().forEach(this::index);
+        } while (page.hasNext());
+
+        ready = true;
+        System.out.println("Dataset search index built: " + size() + " published datasets indexed");
+    }
+
+    /**
+     * Adds or refreshes a dataset. Datasets that are not PUBLISHED are removed,
+     * so this is safe to call after any write.
+     */
+    public void index(Dataset dataset) {
+        if (!enabled || dataset == null || dataset.getId() == null) {
+            return;
+        }
+
+        if (!"PUBLISHED".equals(dataset.getStatus())) {
+            remove(dataset.getId());
+            return;
+        }
+
+        Map<String, Float> frequencies = new HashMap<>();
+        float length = 0;
+        length += addTokens(frequencies, dataset.getName(), NAME_WEIGHT);
+        length += addTokens(frequencies, dataset.getTags(), TAGS_WEIGHT);
+        length += addTokens(frequencies, dataset.getDescription(), DESCRIPTION_WEIGHT);
+
+        Long id = dataset.getId();
+
+        lock.writeLock().lock();
+        try {
+            unindex(id);
+
+            frequencies.forEach((term, tf) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, tf));
+            documentTerms.put(id, frequencies.keySet());
+            documentLengths.put(id, length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long datasetId) {
+        if (!enabled || datasetId == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            unindex(datasetId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the IDs of every dataset matching all terms of the keyword, best
+     * match first. The last term is matched as a prefix so partial words still hit.
+     */
+    public List<Long> search(String keyword) {
+        List<String> terms = tokenize(keyword);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documentLengths.size();
+            if (documentCount == 0) {
+                return Collections.emptyList();
+            }
+            double averageLength = totalLength / documentCount;
+
+            Map<Long, Double> scores = null;
+
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                Map<String, Map<Long, Float>> matches = (i == terms.size() - 1)
+                        ? postings.subMap(term, true, term + Character.MAX_VALUE, false)
+                        : singleTerm(term);
+
+                Map<Long, Double> termScores = new HashMap<>();
+                matches.values().forEach(docs -> {
+                    double idf = idf(documentCount, docs.size());
+                    docs.forEach((id, tf) ->
+                            termScores.merge(id, bm25(idf, tf, documentLengths.get(id), averageLength), Double::sum));
+                });
+
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // Every term must match, same as the old LIKE filter
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())));
+
+            List<Long> ids = new ArrayList<>(ranked.size());
+            ranked.forEach(entry -> ids.add(entry.getKey()));
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Whether the keyword has any term the index can match. Keywords made only
+     * of one-character words or punctuation tokenize to nothing.
+     */
+    public boolean hasSearchableTerms(String keyword) {
+        return !tokenize(keyword).isEmpty();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentLengths.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() >= MIN_TOKEN_LENGTH) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private float addTokens(Map<String, Float> frequencies, String text, float weight) {
+        List<String> tokens = tokenize(text);
+        tokens.forEach(token -> frequencies.merge(token, weight, Float::sum));
+        return tokens.size() * weight;
+    }
+
+    // Caller must hold the write lock
+    private void unindex(Long id) {
+        Set<String> terms = documentTerms.remove(id);
+        if (terms == null) {
+            return;
+        }
+
+        for (String term : terms) {
+            Map<Long, Float> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(id);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+
+        Float length = documentLengths.remove(id);
+        if (length != null) {
+            totalLength -= length;
+        }
+    }
+
+    private Map<String, Map<Long, Float>> singleTerm(String term) {
+        Map<Long, Float> docs = postings.get(term);
+        return docs != null ? Map.of(term, docs) : Collections.emptyMap();
+    }
+
+    private static double idf(int documentCount, int documentFrequency) {
+        return Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static double bm25(double idf, float tf, float documentLength, double averageLength) {
+        double norm = K1 * (1 - B + B * documentLength / averageLength);
+        return idf * (tf * (K1 + 1)) / (tf + norm);
+    }
+}
@@ -0,0 +1,127 @@
+package com.nguyenquyen.dev.dataservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.nguyenquyen.dev.dataservice.dto.projection.AccessAdminRow;
+import com.nguyenquyen.dev.dataservice.dto.projection.DatasetAdminRow;
+import com.nguyenquyen.dev.dataservice.repository.DatasetAccessRepository;
+import com.nguyenquyen.dev.dataservice.repository.DatasetRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Admin listings over the datasets and dataset_accesses tables.
+ * Pages use keyset pagination on id, exports stream projections straight
+ * to the response as NDJSON, so memory stays flat for any table size.
+ */
+@Service
+public class AdminDataService {
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int FLUSH_EVERY_ROWS = 500;
+
+    @Autowired
+    private DatasetRepository datasetRepository;
+
+    @Autowired
+    private DatasetAccessRepository accessRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public Map<String, Object> listDatasets(String status, Long afterId, Integer limit) {
+        PageRequest page = PageRequest.of(0, normalizeLimit(limit));
+        long cursor = afterId != null ? afterId : 0L;
+
+        List<DatasetAdminRow> rows = (status != null && !status.isEmpty())
+                ? datasetRepository.findAdminRowsByStatus(status, cursor, page)
+                : datasetRepository.findAdminRows(cursor, page);
+
+        long total = (status != null && !status.isEmpty())
+                ? datasetRepository.countByStatus(status)
+                : datasetRepository.count();
+
+        Long nextCursor = rows.size() == page.getPageSize() ? rows.get(rows.size() - 1).getId() : null;
+        return toPage("datasets", rows, total, nextCursor);
+    }
+
+    public Map<String, Object> listAccesses(Long afterId, Integer limit) {
+        PageRequest page = PageRequest.of(0, normalizeLimit(limit));
+        long cursor = afterId != null ? afterId : 0L;
+
+        List<AccessAdminRow> rows = accessRepository.findAdminRows(cursor, page);
+
+        Long nextCursor = rows.size() == page.getPageSize() ? rows.get(rows.size() - 1).getId() : null;
+        return toPage("accesses", rows, accessRepository.count(), nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamDatasets(String status, OutputStream out) throws IOException {
+        try (Stream<DatasetAdminRow> rows = (status != null && !status.isEmpty())
+                ? datasetRepository.streamAdminRowsByStatus(status)
+                : datasetRepository.streamAdminRows()) {
+            writeNdjson(rows, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAccesses(OutputStream out) throws IOException {
+        try (Stream<AccessAdminRow> rows = accessRepository.streamAdminRows()) {
+            writeNdjson(rows, out);
+        }
+    }
+
+    private <T> void writeNdjson(Stream<T> rows, OutputStream out) throws IOException {
+        // The shared mapper pretty-prints; NDJSON needs one object per line
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        int[] written = {0};
+
+        try {
+            rows.forEach(row -> {
+                try {
+                    out.write(writer.writeValueAsBytes(row));
+                    out.write('\n');
+                    if (++written[0] % FLUSH_EVERY_ROWS == 0) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        out.flush();
+    }
+
+    // total: matching rows in the table, count: rows in this page
+    private Map<String, Object> toPage(String key, List<?> rows, long total, Long nextCursor) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("total", total);
+        response.put("count", rows.size());
+        response.put(key, rows);
+        response.put("nextCursor", nextCursor);
+        return response;
+    }
+
+    private int normalizeLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+}
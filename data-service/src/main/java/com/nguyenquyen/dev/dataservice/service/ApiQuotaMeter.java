@@ -0,0 +1,246 @@
+package com.nguyenquyen.dev.dataservice.service;
+
+import com.nguyenquyen.dev.dataservice.entity.DatasetAccess;
+import com.nguyenquyen.dev.dataservice.repository.DatasetAccessRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Meters API calls against DatasetAccess quotas in memory.
+ * Tokens resolve through an index (apiAccessToken -> quota) that is filled
+ * from the database on first use, the limit is enforced with a CAS on the
+ * quota's counter, and usage is written back as batched relative UPDATEs.
+ * Limits are exact per instance; each instance only writes its own deltas.
+ * Revocations made on another instance are picked up by revalidate().
+ */
+@Service
+public class ApiQuotaMeter {
+
+    // pending value of a quota that was dropped from the index; calls must re-resolve
+    private static final int EVICTED = -1;
+
+    private static final int REVALIDATE_BATCH_SIZE = 500;
+
+    private static final String FLUSH_SQL =
+            "UPDATE dataset_accesses SET api_calls_used = api_calls_used + ?, last_accessed_at = ? WHERE id = ?";
+
+    @Autowired
+    private DatasetAccessRepository accessRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${dataset.api-quota.idle-eviction-ms:600000}")
+    private long idleEvictionMs;
+
+    private final Map<String, Quota> quotas = new ConcurrentHashMap<>();
+
+    /**
+     * Counts one call for the token, or throws if the token is unknown, does
+     * not belong to the user and dataset, or has no calls left.
+     */
+    public void recordCall(String apiToken, Long userId, Long datasetId) {
+        while (true) {
+            Quota quota = resolve(apiToken);
+            if (quota == null || !quota.datasetId.equals(datasetId) || !quota.userId.equals(userId)) {
+                throw new RuntimeException("Invalid API token");
+            }
+            if (quota.revoked || (quota.expiresAt != null && LocalDateTime.now().isAfter(quota.expiresAt))) {
+                throw new RuntimeException("API access is no longer active");
+            }
+
+            while (true) {
+                int used = quota.used.get();
+                if (used >= quota.limit) {
+                    throw new RuntimeException("API call limit exceeded");
+                }
+                if (quota.used.compareAndSet(used, used + 1)) {
+                    break;
+                }
+            }
+
+            // Set before the call becomes pending, so a flush never writes a null last_accessed_at
+            quota.lastCallAt = LocalDateTime.now();
+            quota.lastUsedNanos = System.nanoTime();
+            if (addPending(quota)) {
+                return;
+            }
+            // Evicted by a flush meanwhile, count the call on a fresh copy instead
+        }
+    }
+
+    /**
+     * Calls recorded since the last flush, so responses can show an up-to-date count.
+     */
+    public int pendingCalls(String apiToken) {
+        Quota quota = apiToken != null ? quotas.get(apiToken) : null;
+        return quota != null ? Math.max(quota.pending.get(), 0) : 0;
+    }
+
+    /**
+     * Stops the token from being used. Its unflushed calls are still written.
+     */
+    public void revoke(String apiToken) {
+        Quota quota = apiToken != null ? quotas.get(apiToken) : null;
+        if (quota != null) {
+            quota.revoked = true;
+        }
+    }
+
+    /**
+     * Writes the pending deltas. Synchronized so the scheduled flush and drain()
+     * never overlap, which keeps a failed batch's deltas on quotas that are
+     * still indexed: eviction only happens in a later flush, once pending is 0.
+     */
+    @Scheduled(fixedDelayString = "${dataset.api-quota.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        long idleBefore = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(idleEvictionMs);
+        List<Object[]> batch = new ArrayList<>();
+        List<Quota> flushed = new ArrayList<>();
+
+        quotas.forEach((token, quota) -> {
+            if ((quota.revoked || quota.lastUsedNanos - idleBefore < 0) && quota.pending.compareAndSet(0, EVICTED)) {
+                // Nothing left to write; calls still holding it see EVICTED and reload from the database
+                quotas.remove(token, quota);
+                return;
+            }
+
+            int calls = takePending(quota);
+            if (calls > 0) {
+                batch.add(new Object[]{calls, quota.lastCallAt, quota.accessId});
+                flushed.add(quota);
+            }
+        });
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+        } catch (Exception e) {
+            // Put the deltas back so the next flush retries them
+            System.err.println("Failed to flush API call usage: " + e.getMessage());
+            for (int i = 0; i < flushed.size(); i++) {
+                flushed.get(i).pending.addAndGet((Integer) batch.get(i)[0]);
+            }
+        }
+    }
+
+    /**
+     * Marks cached quotas whose access is no longer ACTIVE in the database as
+     * revoked, so a revoke on one instance reaches the others within an interval.
+     */
+    @Scheduled(fixedDelayString = "${dataset.api-quota.revalidate-interval-ms:30000}")
+    public void revalidate() {
+        Map<Long, Quota> byAccessId = new HashMap<>();
+        quotas.values().forEach(quota -> {
+            if (!quota.revoked) {
+                byAccessId.put(quota.accessId, quota);
+            }
+        });
+
+        List<Long> ids = new ArrayList<>(byAccessId.keySet());
+        for (int from = 0; from < ids.size(); from += REVALIDATE_BATCH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + REVALIDATE_BATCH_SIZE, ids.size()));
+            try {
+                accessRepository.findInactiveIds(chunk).forEach(id -> byAccessId.get(id).revoked = true);
+            } catch (Exception e) {
+                System.err.println("Failed to revalidate API quotas: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+
+    private Quota resolve(String apiToken) {
+        if (apiToken == null || apiToken.isBlank()) {
+            return null;
+        }
+
+        Quota quota = quotas.get(apiToken);
+        if (quota != null && quota.pending.get() != EVICTED) {
+            return quota;
+        }
+        if (quota != null) {
+            quotas.remove(apiToken, quota);
+        }
+
+        DatasetAccess access = accessRepository.findByApiAccessToken(apiToken).orElse(null);
+        if (access == null || !"ACTIVE".equals(access.getStatus())) {
+            return null;
+        }
+
+        // Another request may have loaded it meanwhile, keep the first copy
+        Quota loaded = new Quota(access);
+        Quota existing = quotas.putIfAbsent(apiToken, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    // Returns false if the quota was evicted, the call must then go to a fresh copy
+    private static boolean addPending(Quota quota) {
+        while (true) {
+            int pending = quota.pending.get();
+            if (pending == EVICTED) {
+                return false;
+            }
+            if (quota.pending.compareAndSet(pending, pending + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private static int takePending(Quota quota) {
+        while (true) {
+            int pending = quota.pending.get();
+            if (pending <= 0) {
+                return 0;
+            }
+            if (quota.pending.compareAndSet(pending, 0)) {
+                return pending;
+            }
+        }
+    }
+
+    private static class Quota {
+        private final Long accessId;
+        private final Long userId;
+        private final Long datasetId;
+        private final int limit;
+        private final LocalDateTime expiresAt;
+
+        // Calls used including unflushed ones, and the unflushed part (EVICTED once dropped)
+        private final AtomicInteger used;
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private volatile boolean revoked;
+        private volatile LocalDateTime lastCallAt;
+        private volatile long lastUsedNanos = System.nanoTime();
+
+        Quota(DatasetAccess access) {
+            this.accessId = access.getId();
+            this.userId = access.getUserId();
+            this.datasetId = access.getDataset().getId();
+            this.limit = access.getApiCallsLimit();
+            this.expiresAt = access.getExpiresAt();
+            this.used = new AtomicInteger(access.getApiCallsUsed());
+        }
+    }
+}
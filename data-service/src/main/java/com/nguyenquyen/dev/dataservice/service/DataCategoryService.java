@@ -1,5 +1,6 @@
 package com.nguyenquyen.dev.dataservice.service;
 
+import com.nguyenquyen.dev.dataservice.client.GatewayCacheClient;
 import com.nguyenquyen.dev.dataservice.dto.request.DataCategoryRequest;
 import com.nguyenquyen.dev.dataservice.dto.response.DataCategoryResponse;
 import com.nguyenquyen.dev.dataservice.entity.DataCategory;
@@ -20,6 +21,9 @@ public class DataCategoryService {
     @Autowired
     private DatasetRepository datasetRepository;
 
+    @Autowired
+    private GatewayCacheClient gatewayCacheClient;
+
     public DataCategoryResponse createCategory(DataCategoryRequest request) {
         if (categoryRepository.existsByCode(request.getCode())) {
             throw new RuntimeException("Category code already exists");
@@ -40,6 +44,7 @@ public class DataCategoryService {
                 .build();
 
         category = categoryRepository.save(category);
+        gatewayCacheClient.purgeCategories();
 
         return mapToResponse(category);
     }
@@ -67,6 +72,7 @@ public class DataCategoryService {
         category.setDisplayOrder(request.getDisplayOrder());
 
         category = categoryRepository.save(category);
+        gatewayCacheClient.purgeCategories();
 
         return mapToResponse(category);
     }
@@ -107,6 +113,7 @@ public class DataCategoryService {
         }
 
         categoryRepository.delete(category);
+        gatewayCacheClient.purgeCategories();
     }
 
     private DataCategoryResponse mapToResponse(DataCategory category) {
@@ -1,30 +1,56 @@
 package com.nguyenquyen.dev.dataservice.service;
 
+import com.nguyenquyen.dev.dataservice.dto.request.AccessGrantItemRequest;
 import com.nguyenquyen.dev.dataservice.dto.request.DatasetAccessRequest;
+import com.nguyenquyen.dev.dataservice.dto.response.AccessGrantResultResponse;
 import com.nguyenquyen.dev.dataservice.dto.response.DatasetAccessResponse;
 import com.nguyenquyen.dev.dataservice.entity.Dataset;
 import com.nguyenquyen.dev.dataservice.entity.DatasetAccess;
 import com.nguyenquyen.dev.dataservice.repository.DatasetAccessRepository;
 import com.nguyenquyen.dev.dataservice.repository.DatasetRepository;
+import com.nguyenquyen.dev.dataservice.security.CurrentUser;
 import com.nguyenquyen.dev.dataservice.security.UserContextHolder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class DatasetAccessService {
 
+    // Relative, so concurrent grants never overwrite each other or other columns of the row
+    private static final String INCREMENT_PURCHASES_SQL =
+            "UPDATE datasets SET purchase_count = purchase_count + 1 WHERE id = ?";
+
     @Autowired
     private DatasetAccessRepository accessRepository;
 
     @Autowired
     private DatasetRepository datasetRepository;
 
+    @Autowired
+    private DatasetCounterService counterService;
+
+    @Autowired
+    private DatasetStatsService statsService;
+
+    @Autowired
+    private ApiQuotaMeter apiQuotaMeter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     public DatasetAccessResponse grantAccess(DatasetAccessRequest request) {
         Dataset dataset = datasetRepository.findById(request.getDatasetId())
                 .orElseThrow(() -> new RuntimeException("Dataset not found"));
@@ -33,9 +59,10 @@ public class DatasetAccessService {
             throw new RuntimeException("Dataset is not published");
         }
 
-        Long userId = UserContextHolder.getCurrentUserId();
-        String userEmail = UserContextHolder.getCurrentUserEmail();
-        String userName = UserContextHolder.getCurrentUserFullName();
+        CurrentUser currentUser = UserContextHolder.requireCurrent();
+        Long userId = currentUser.userId();
+        String userEmail = currentUser.email();
+        String userName = currentUser.fullName();
 
         // Check if user already has active access
         Optional<DatasetAccess> existingAccess = accessRepository.findActiveAccess(
@@ -46,40 +73,62 @@ public class DatasetAccessService {
             throw new RuntimeException("You already have active access to this dataset");
         }
 
-        LocalDateTime expiresAt = null;
-        if (request.getDurationDays() != null && request.getDurationDays() > 0) {
-            expiresAt = LocalDateTime.now().plusDays(request.getDurationDays());
-        }
+        DatasetAccess access = createAccess(dataset, userId, userEmail, userName,
+                request.getAccessType(), request.getDurationDays(), request.getApiCallsLimit(), null);
 
-        Integer apiCallsLimit = request.getApiCallsLimit() != null ?
-                request.getApiCallsLimit() : 0;
+        return mapToResponse(access);
+    }
 
-        DatasetAccess access = DatasetAccess.builder()
-                .dataset(dataset)
-                .userId(userId)
-                .userEmail(userEmail)
-                .userName(userName)
-                .accessType(request.getAccessType())
-                .status("ACTIVE")
-                .expiresAt(expiresAt)
-                .pricePaid(dataset.getPrice())
-                //.transactionId(request.getTransactionId()) // chỉnh sủa
-                .apiCallsLimit(apiCallsLimit)
-                .apiCallsUsed(0)
-                .downloadCount(0)
-                .build();
+    /**
+     * Grants access for paid transactions relayed by Payment Service.
+     * Idempotent on transactionId: a transaction that already produced an
+     * access record is reported as DUPLICATE instead of being granted twice.
+     */
+    public List<AccessGrantResultResponse> grantAccessBatch(List<AccessGrantItemRequest> grants) {
+        List<String> transactionIds = grants.stream()
+                .map(AccessGrantItemRequest::getTransactionId)
+                .collect(Collectors.toList());
 
-        if ("API".equals(request.getAccessType())) {
-            access.setApiAccessToken(generateAccessToken());
+        Map<String, Long> existingAccessIds = new HashMap<>();
+        accessRepository.findIdsByTransactionIds(transactionIds)
+                .forEach(row -> existingAccessIds.put((String) row[0], (Long) row[1]));
+
+        Set<Long> datasetIds = grants.stream()
+                .map(AccessGrantItemRequest::getDatasetId)
+                .collect(Collectors.toSet());
+        Map<Long, Dataset> datasets = datasetRepository.findAllById(datasetIds).stream()
+                .collect(Collectors.toMap(Dataset::getId, Function.identity()));
+
+        List<AccessGrantResultResponse> results = new ArrayList<>(grants.size());
+
+        for (AccessGrantItemRequest grant : grants) {
+            Long existingId = existingAccessIds.get(grant.getTransactionId());
+            if (existingId != null) {
+                results.add(grantResult(grant, "DUPLICATE", existingId, null));
+                continue;
+            }
+
+            Dataset dataset = datasets.get(grant.getDatasetId());
+            if (dataset == null) {
+                results.add(grantResult(grant, "REJECTED", null, "Dataset not found"));
+                continue;
+            }
+
+            try {
+                DatasetAccess access = createAccess(dataset, grant.getUserId(), grant.getUserEmail(),
+                        grant.getUserName(), grant.getAccessType(), grant.getDurationDays(),
+                        grant.getApiCallsLimit(), grant.getTransactionId());
+                existingAccessIds.put(grant.getTransactionId(), access.getId());
+                results.add(grantResult(grant, "GRANTED", access.getId(), null));
+            } catch (DataIntegrityViolationException e) {
+                // Another relay delivered the same transaction concurrently
+                results.add(grantResult(grant, "DUPLICATE", null, null));
+            } catch (RuntimeException e) {
+                results.add(grantResult(grant, "REJECTED", null, e.getMessage()));
+            }
         }
 
-        access = accessRepository.save(access);
-
-        // Update dataset statistics
-        dataset.setPurchaseCount(dataset.getPurchaseCount() + 1);
-        datasetRepository.save(dataset);
-
-        return mapToResponse(access);
+        return results;
     }
 
     public List<DatasetAccessResponse> getMyAccesses() {
@@ -103,8 +152,9 @@ public class DatasetAccessService {
     }
 
     public void recordDownload(Long datasetId) {
-        Dataset dataset = datasetRepository.findById(datasetId)
-                .orElseThrow(() -> new RuntimeException("Dataset not found"));
+        if (!datasetRepository.existsById(datasetId)) {
+            throw new RuntimeException("Dataset not found");
+        }
 
         Long userId = UserContextHolder.getCurrentUserId();
 
@@ -116,25 +166,12 @@ public class DatasetAccessService {
         access.setLastAccessedAt(LocalDateTime.now());
         accessRepository.save(access);
 
-        dataset.setDownloadCount(dataset.getDownloadCount() + 1);
-        datasetRepository.save(dataset);
+        counterService.recordDownload(datasetId);
+        statsService.downloadRecorded();
     }
 
     public void recordApiCall(Long datasetId, String apiToken) {
-        DatasetAccess access = accessRepository.findByUserId(UserContextHolder.getCurrentUserId())
-                .stream()
-                .filter(a -> a.getDataset().getId().equals(datasetId) &&
-                        apiToken.equals(a.getApiAccessToken()))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Invalid API token"));
-
-        if (access.getApiCallsUsed() >= access.getApiCallsLimit()) {
-            throw new RuntimeException("API call limit exceeded");
-        }
-
-        access.setApiCallsUsed(access.getApiCallsUsed() + 1);
-        access.setLastAccessedAt(LocalDateTime.now());
-        accessRepository.save(access);
+        apiQuotaMeter.recordCall(apiToken, UserContextHolder.getCurrentUserId(), datasetId);
     }
 
     public void revokeAccess(Long id) {
@@ -152,6 +189,55 @@ public class DatasetAccessService {
 
         access.setStatus("REVOKED");
         accessRepository.save(access);
+        apiQuotaMeter.revoke(access.getApiAccessToken());
+    }
+
+    private DatasetAccess createAccess(Dataset dataset, Long userId, String userEmail, String userName,
+                                       String accessType, Integer durationDays, Integer apiCallsLimit,
+                                       String transactionId) {
+        LocalDateTime expiresAt = null;
+        if (durationDays != null && durationDays > 0) {
+            expiresAt = LocalDateTime.now().plusDays(durationDays);
+        }
+
+        DatasetAccess access = DatasetAccess.builder()
+                .dataset(dataset)
+                .userId(userId)
+                .userEmail(userEmail != null ? userEmail : "unknown")
+                .userName(userName != null ? userName : "Unknown User")
+                .accessType(accessType)
+                .status("ACTIVE")
+                .expiresAt(expiresAt)
+                .pricePaid(dataset.getPrice())
+                .transactionId(transactionId)
+                .apiCallsLimit(apiCallsLimit != null ? apiCallsLimit : 0)
+                .apiCallsUsed(0)
+                .downloadCount(0)
+                .build();
+
+        if ("API".equals(accessType)) {
+            access.setApiAccessToken(generateAccessToken());
+        }
+
+        boolean newConsumer = !accessRepository.existsByUserId(userId);
+
+        access = accessRepository.save(access);
+
+        // Update dataset statistics
+        jdbcTemplate.update(INCREMENT_PURCHASES_SQL, dataset.getId());
+        statsService.accessGranted(newConsumer);
+
+        return access;
+    }
+
+    private AccessGrantResultResponse grantResult(AccessGrantItemRequest grant, String status,
+                                                  Long accessId, String message) {
+        return AccessGrantResultResponse.builder()
+                .transactionId(grant.getTransactionId())
+                .status(status)
+                .accessId(accessId)
+                .message(message)
+                .build();
     }
 
     private String generateAccessToken() {
@@ -173,7 +259,7 @@ public class DatasetAccessService {
                 .transactionId(access.getTransactionId())
                 .apiAccessToken(access.getApiAccessToken())
                 .apiCallsLimit(access.getApiCallsLimit())
-                .apiCallsUsed(access.getApiCallsUsed())
+                .apiCallsUsed(access.getApiCallsUsed() + apiQuotaMeter.pendingCalls(access.getApiAccessToken()))
                 .downloadCount(access.getDownloadCount())
                 .lastAccessedAt(access.getLastAccessedAt())
                 .grantedAt(access.getGrantedAt())
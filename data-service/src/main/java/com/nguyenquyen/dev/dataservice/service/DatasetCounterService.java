@@ -0,0 +1,101 @@
+package com.nguyenquyen.dev.dataservice.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind view/download counters for datasets.
+ * Increments are accumulated in memory and flushed as relative
+ * UPDATEs (view_count = view_count + ?), so reads never write to the
+ * datasets table and concurrent increments are never lost.
+ */
+@Service
+public class DatasetCounterService {
+
+    private static final String FLUSH_SQL =
+            "UPDATE datasets SET view_count = view_count + ?, download_count = download_count + ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, Counters> pending = new ConcurrentHashMap<>();
+
+    public void recordView(Long datasetId) {
+        pending.computeIfAbsent(datasetId, id -> new Counters()).views.increment();
+    }
+
+    public void recordDownload(Long datasetId) {
+        pending.computeIfAbsent(datasetId, id -> new Counters()).downloads.increment();
+    }
+
+    /**
+     * Views recorded since the last flush, so responses can show an up-to-date count.
+     */
+    public long pendingViews(Long datasetId) {
+        Counters counters = pending.get(datasetId);
+        return counters != null ? counters.views.sum() : 0;
+    }
+
+    public long pendingDownloads(Long datasetId) {
+        Counters counters = pending.get(datasetId);
+        return counters != null ? counters.downloads.sum() : 0;
+    }
+
+    public long pendingDownloadsTotal() {
+        return pending.values().stream()
+                .mapToLong(counters -> counters.downloads.sum())
+                .sum();
+    }
+
+    @Scheduled(fixedDelayString = "${dataset.counters.flush-interval-ms:5000}")
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>();
+
+        pending.forEach((id, counters) -> {
+            long views = counters.views.sumThenReset();
+            long downloads = counters.downloads.sumThenReset();
+            if (views != 0 || downloads != 0) {
+                batch.add(new Object[]{views, downloads, id});
+            }
+        });
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+        } catch (Exception e) {
+            // Put the deltas back so the next flush retries them
+            System.err.println("Failed to flush dataset counters: " + e.getMessage());
+            for (Object[] row : batch) {
+                Counters counters = pending.computeIfAbsent((Long) row[2], id -> new Counters());
+                counters.views.add((Long) row[0]);
+                counters.downloads.add((Long) row[1]);
+            }
+        }
+    }
+
+    public void forget(Long datasetId) {
+        pending.remove(datasetId);
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+
+    private static class Counters {
+        private final LongAdder views = new LongAdder();
+        private final LongAdder downloads = new LongAdder();
+    }
+}
@@ -7,17 +7,50 @@ import com.nguyenquyen.dev.dataservice.entity.DatasetRating;
 import com.nguyenquyen.dev.dataservice.repository.DatasetAccessRepository;
 import com.nguyenquyen.dev.dataservice.repository.DatasetRatingRepository;
 import com.nguyenquyen.dev.dataservice.repository.DatasetRepository;
+import com.nguyenquyen.dev.dataservice.security.CurrentUser;
 import com.nguyenquyen.dev.dataservice.security.UserContextHolder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+/**
+ * Dataset ratings. The aggregates on the datasets row (rating_sum,
+ * rating_count and the derived average) are adjusted with one relative
+ * UPDATE per vote, so a vote costs O(1) and concurrent votes cannot
+ * overwrite each other. A periodic reconciliation against dataset_ratings
+ * fixes any drift.
+ */
 @Service
 public class DatasetRatingService {
 
+    // MySQL applies SET assignments left to right, so rating sees the updated sum and count
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE datasets SET rating_sum = rating_sum + ?, rating_count = rating_count + ?, " +
+                    "rating = IF(rating_count > 0, rating_sum / rating_count, 0) WHERE id = ?";
+
+    private static final String SELECT_AGGREGATE_SQL =
+            "SELECT rating_sum, rating_count FROM datasets WHERE id = ?";
+
+    private static final String RECONCILE_SQL =
+            "UPDATE datasets d LEFT JOIN (" +
+                    "SELECT dataset_id, SUM(rating) AS total, COUNT(*) AS votes FROM dataset_ratings " +
+                    "WHERE dataset_id BETWEEN ? AND ? GROUP BY dataset_id) r ON r.dataset_id = d.id " +
+                    "SET d.rating_sum = COALESCE(r.total, 0), d.rating_count = COALESCE(r.votes, 0), " +
+                    "d.rating = IF(COALESCE(r.votes, 0) > 0, r.total / r.votes, 0) " +
+                    "WHERE d.id BETWEEN ? AND ? " +
+                    "AND (d.rating_sum <> COALESCE(r.total, 0) OR d.rating_count <> COALESCE(r.votes, 0))";
+
+    private static final long RECONCILE_BATCH_SIZE = 1000;
+
     @Autowired
     private DatasetRatingRepository ratingRepository;
 
@@ -27,13 +60,21 @@ public class DatasetRatingService {
     @Autowired
     private DatasetAccessRepository accessRepository;
 
+    @Autowired
+    private DatasetStatsService statsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Transactional
     public DatasetRatingResponse rateDataset(DatasetRatingRequest request) {
         Dataset dataset = datasetRepository.findById(request.getDatasetId())
                 .orElseThrow(() -> new RuntimeException("Dataset not found"));
 
-        Long userId = UserContextHolder.getCurrentUserId();
-        String userEmail = UserContextHolder.getCurrentUserEmail();
-        String userName = UserContextHolder.getCurrentUserFullName();
+        CurrentUser currentUser = UserContextHolder.requireCurrent();
+        Long userId = currentUser.userId();
+        String userEmail = currentUser.email();
+        String userName = currentUser.fullName();
 
         // Check if user has access to the dataset
         boolean hasAccess = accessRepository.existsByUserIdAndDatasetId(userId, request.getDatasetId());
@@ -47,9 +88,13 @@ public class DatasetRatingService {
         );
 
         DatasetRating rating;
+        long sumDelta;
+        int countDelta;
 
         if (existingRating.isPresent()) {
             rating = existingRating.get();
+            sumDelta = request.getRating() - rating.getRating();
+            countDelta = 0;
             rating.setRating(request.getRating());
             rating.setComment(request.getComment());
         } else {
@@ -61,12 +106,13 @@ public class DatasetRatingService {
                     .rating(request.getRating())
                     .comment(request.getComment())
                     .build();
+            sumDelta = request.getRating();
+            countDelta = 1;
         }
 
         rating = ratingRepository.save(rating);
 
-        // Update dataset rating
-        updateDatasetRating(dataset);
+        applyRatingDelta(dataset.getId(), sumDelta, countDelta);
 
         return mapToResponse(rating);
     }
@@ -85,6 +131,7 @@ public class DatasetRatingService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional
     public void deleteRating(Long id) {
         DatasetRating rating = ratingRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Rating not found"));
@@ -94,22 +141,60 @@ public class DatasetRatingService {
             throw new RuntimeException("Access denied");
         }
 
-        Dataset dataset = rating.getDataset();
+        Long datasetId = rating.getDataset().getId();
 
         ratingRepository.delete(rating);
 
-        // Update dataset rating
-        updateDatasetRating(dataset);
+        applyRatingDelta(datasetId, -rating.getRating(), -1);
+    }
+
+    /**
+     * Recomputes the aggregates from dataset_ratings in id ranges and only
+     * writes rows that drifted.
+     */
+    @Scheduled(initialDelayString = "${dataset.ratings.reconcile-interval-ms:3600000}",
+            fixedDelayString = "${dataset.ratings.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM datasets", Long.class);
+        if (maxId == null) {
+            return;
+        }
+
+        int fixed = 0;
+        for (long from = 1; from <= maxId; from += RECONCILE_BATCH_SIZE) {
+            long to = from + RECONCILE_BATCH_SIZE - 1;
+            fixed += jdbcTemplate.update(RECONCILE_SQL, from, to, from, to);
+        }
+
+        if (fixed > 0) {
+            System.out.println("Dataset rating reconciliation corrected " + fixed + " datasets");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        // Fills rating_sum for rows that existed before the column was added
+        reconcile();
     }
 
-    private void updateDatasetRating(Dataset dataset) {
-        Double avgRating = ratingRepository.calculateAverageRating(dataset.getId());
-        Long ratingCount = ratingRepository.countRatings(dataset.getId());
+    /**
+     * Adjusts the dataset's aggregates in place. The row lock taken by the
+     * UPDATE is held until commit, so the values read back are this vote's result.
+     */
+    private void applyRatingDelta(Long datasetId, long sumDelta, int countDelta) {
+        jdbcTemplate.update(APPLY_DELTA_SQL, sumDelta, countDelta, datasetId);
 
-        dataset.setRating(avgRating != null ? avgRating : 0.0);
-        dataset.setRatingCount(ratingCount.intValue());
+        Map<String, Object> row = jdbcTemplate.queryForMap(SELECT_AGGREGATE_SQL, datasetId);
+        long newSum = ((Number) row.get("rating_sum")).longValue();
+        int newCount = ((Number) row.get("rating_count")).intValue();
+        long oldSum = newSum - sumDelta;
+        int oldCount = newCount - countDelta;
+
+        statsService.ratingChanged(average(oldSum, oldCount), oldCount, average(newSum, newCount), newCount);
+    }
 
-        datasetRepository.save(dataset);
+    private static double average(long sum, int count) {
+        return count > 0 ? (double) sum / count : 0.0;
     }
 
     private DatasetRatingResponse mapToResponse(DatasetRating rating) {
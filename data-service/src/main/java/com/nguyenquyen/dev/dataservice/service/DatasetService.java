@@ -1,31 +1,52 @@
 package com.nguyenquyen.dev.dataservice.service;
 
+import com.nguyenquyen.dev.dataservice.client.GatewayCacheClient;
+import com.nguyenquyen.dev.dataservice.dto.projection.DatasetSummary;
 import com.nguyenquyen.dev.dataservice.dto.request.DatasetRequest;
 import com.nguyenquyen.dev.dataservice.dto.request.DatasetSearchRequest;
 import com.nguyenquyen.dev.dataservice.dto.response.DatasetResponse;
 import com.nguyenquyen.dev.dataservice.dto.response.PageResponse;
 import com.nguyenquyen.dev.dataservice.entity.DataCategory;
 import com.nguyenquyen.dev.dataservice.entity.Dataset;
+import com.nguyenquyen.dev.dataservice.entity.DatasetDetail;
 import com.nguyenquyen.dev.dataservice.repository.DataCategoryRepository;
 import com.nguyenquyen.dev.dataservice.repository.DatasetAccessRepository;
+import com.nguyenquyen.dev.dataservice.repository.DatasetDetailRepository;
 import com.nguyenquyen.dev.dataservice.repository.DatasetRatingRepository;
 import com.nguyenquyen.dev.dataservice.repository.DatasetRepository;
+import com.nguyenquyen.dev.dataservice.repository.DatasetSpecifications;
+import com.nguyenquyen.dev.dataservice.search.DatasetFacetIndex;
+import com.nguyenquyen.dev.dataservice.search.DatasetSearchIndex;
+import com.nguyenquyen.dev.dataservice.security.CurrentUser;
 import com.nguyenquyen.dev.dataservice.security.UserContextHolder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class DatasetService {
 
+    private static final String DEFAULT_SORT = "createdAt";
+    private static final String RELEVANCE_SORT = "relevance";
+
+    // Keyword hits above this are sorted by the LIKE query instead of an IN list
+    private static final int MAX_SORTED_KEYWORD_HITS = 10000;
+
     @Autowired
     private DatasetRepository datasetRepository;
 
@@ -38,6 +59,24 @@ public class DatasetService {
     @Autowired
     private DatasetRatingRepository ratingRepository;
 
+    @Autowired
+    private DatasetDetailRepository detailRepository;
+
+    @Autowired
+    private DatasetSearchIndex searchIndex;
+
+    @Autowired
+    private DatasetFacetIndex facetIndex;
+
+    @Autowired
+    private DatasetCounterService counterService;
+
+    @Autowired
+    private DatasetStatsService statsService;
+
+    @Autowired
+    private GatewayCacheClient gatewayCacheClient;
+
     public DatasetResponse createDataset(DatasetRequest request) {
         if (datasetRepository.existsByCode(request.getCode())) {
             throw new RuntimeException("Dataset code already exists");
@@ -46,9 +85,10 @@ public class DatasetService {
         DataCategory category = categoryRepository.findById(request.getCategoryId())
                 .orElseThrow(() -> new RuntimeException("Category not found"));
 
-        Long providerId = UserContextHolder.getCurrentUserId();
-        String providerEmail = UserContextHolder.getCurrentUserEmail();
-        String providerName = UserContextHolder.getCurrentUserFullName();
+        CurrentUser currentUser = UserContextHolder.requireCurrent();
+        Long providerId = currentUser.userId();
+        String providerEmail = currentUser.email();
+        String providerName = currentUser.fullName();
 
         Dataset dataset = Dataset.builder()
                 .name(request.getName())
@@ -74,8 +114,6 @@ public class DatasetService {
                 .recordCount(request.getRecordCount())
                 .apiEndpoint(request.getApiEndpoint())
                 .tags(request.getTags())
-                .sampleData(request.getSampleData())
-                .datasetSchema(request.getSchema())
                 .anonymized(request.getAnonymized())
                 .gdprCompliant(request.getGdprCompliant())
                 .build();
@@ -85,8 +123,13 @@ public class DatasetService {
         }
 
         dataset = datasetRepository.save(dataset);
+        DatasetDetail detail = saveDetail(dataset.getId(), request);
+        searchIndex.index(dataset);
+        facetIndex.index(dataset);
+        statsService.datasetCreated(dataset);
+        gatewayCacheClient.purgeCategories();
 
-        return mapToResponse(dataset, false);
+        return mapToResponse(dataset, detail, false);
     }
 
     public DatasetResponse updateDataset(Long id, DatasetRequest request) {
@@ -106,6 +149,8 @@ public class DatasetService {
         DataCategory category = categoryRepository.findById(request.getCategoryId())
                 .orElseThrow(() -> new RuntimeException("Category not found"));
 
+        DatasetStatsService.Entry before = DatasetStatsService.entryOf(dataset);
+
         dataset.setName(request.getName());
         dataset.setCode(request.getCode());
         dataset.setDescription(request.getDescription());
@@ -126,14 +171,17 @@ public class DatasetService {
         dataset.setRecordCount(request.getRecordCount());
         dataset.setApiEndpoint(request.getApiEndpoint());
         dataset.setTags(request.getTags());
-        dataset.setSampleData(request.getSampleData());
-        dataset.setDatasetSchema(request.getSchema());
         dataset.setAnonymized(request.getAnonymized());
         dataset.setGdprCompliant(request.getGdprCompliant());
 
         dataset = datasetRepository.save(dataset);
+        DatasetDetail detail = saveDetail(id, request);
+        searchIndex.index(dataset);
+        facetIndex.index(dataset);
+        statsService.datasetChanged(before, dataset);
+        gatewayCacheClient.purgeDataset(id);
 
-        return mapToResponse(dataset, checkUserAccess(dataset.getId()));
+        return mapToResponse(dataset, detail, checkUserAccess(dataset.getId()));
     }
 
     public DatasetResponse publishDataset(Long id) {
@@ -145,56 +193,71 @@ public class DatasetService {
             throw new RuntimeException("Access denied");
         }
 
+        DatasetStatsService.Entry before = DatasetStatsService.entryOf(dataset);
+
         dataset.setStatus("PUBLISHED");
         dataset.setPublishedAt(LocalDateTime.now());
         dataset = datasetRepository.save(dataset);
+        searchIndex.index(dataset);
+        facetIndex.index(dataset);
+        statsService.datasetChanged(before, dataset);
+        gatewayCacheClient.purgeDataset(id);
 
-        return mapToResponse(dataset, checkUserAccess(dataset.getId()));
+        return mapToResponse(dataset, findDetail(id), checkUserAccess(dataset.getId()));
     }
 
     public PageResponse<DatasetResponse> searchDatasets(DatasetSearchRequest searchRequest) {
+        // "relevance" only ranks keyword hits; everywhere else it means the default order
+        boolean relevanceSort = RELEVANCE_SORT.equalsIgnoreCase(searchRequest.getSortBy());
         Pageable pageable = PageRequest.of(
                 searchRequest.getPage(),
                 searchRequest.getSize(),
-                Sort.by(Sort.Direction.fromString(searchRequest.getSortDirection()),
-                        searchRequest.getSortBy())
+                relevanceSort
+                        ? Sort.by(Sort.Direction.DESC, DEFAULT_SORT)
+                        : Sort.by(Sort.Direction.fromString(searchRequest.getSortDirection()),
+                                searchRequest.getSortBy())
         );
 
-        Page<Dataset> page;
-
-        if (searchRequest.getCategoryId() != null ||
-                searchRequest.getDataType() != null ||
-                searchRequest.getFormat() != null ||
-                searchRequest.getPricingModel() != null ||
-                searchRequest.getRegion() != null ||
-                searchRequest.getCountry() != null ||
-                searchRequest.getUsageRights() != null ||
-                searchRequest.getMinPrice() != null ||
-                searchRequest.getMaxPrice() != null) {
-
-            page = datasetRepository.advancedSearch(
-                    "PUBLISHED",
-                    searchRequest.getCategoryId(),
-                    searchRequest.getDataType(),
-                    searchRequest.getFormat(),
-                    searchRequest.getPricingModel(),
-                    searchRequest.getRegion(),
-                    searchRequest.getCountry(),
-                    searchRequest.getUsageRights(),
-                    searchRequest.getMinPrice(),
-                    searchRequest.getMaxPrice(),
-                    pageable
-            );
+        String keyword = searchRequest.getKeyword();
+        boolean hasKeyword = keyword != null && !keyword.isBlank();
+        Specification<Dataset> spec = DatasetSpecifications.search("PUBLISHED", searchRequest);
+
+        Page<DatasetSummary> page;
+        Map<String, Map<String, Integer>> facets = null;
+
+        // Keywords the index cannot tokenize (e.g. "a") fall through to the LIKE query
+        if (hasKeyword && searchIndex.isReady() && searchIndex.hasSearchableTerms(keyword)) {
+            List<Long> keywordIds = searchIndex.search(keyword);
+            if (facetIndex.isReady()) {
+                facets = facetIndex.facetCounts(searchRequest, keywordIds);
+            }
+            List<Long> rankedIds = DatasetSpecifications.hasFilters(searchRequest)
+                    ? retainMatching(keywordIds, searchRequest, spec)
+                    : keywordIds;
+
+            if (relevanceSort || isDefaultSort(searchRequest) || rankedIds.isEmpty()) {
+                page = loadRankedPage(rankedIds, pageable);
+            } else if (rankedIds.size() <= MAX_SORTED_KEYWORD_HITS) {
+                // An explicit sort (price, rating, ...) replaces the BM25 order
+                page = datasetRepository.findSummaries(DatasetSpecifications.idIn(rankedIds), pageable);
+            } else {
+                // Too many hits for one IN list, sort in SQL with the keyword as LIKE
+                page = datasetRepository.findSummaries(spec.and(DatasetSpecifications.keywordLike(keyword)), pageable);
+            }
         } else {
-            page = datasetRepository.searchDatasets(
-                    "PUBLISHED",
-                    searchRequest.getKeyword(),
-                    pageable
-            );
+            if (!hasKeyword && facetIndex.isReady()) {
+                facets = facetIndex.facetCounts(searchRequest, null);
+            }
+            if (hasKeyword) {
+                spec = spec.and(DatasetSpecifications.keywordLike(keyword));
+            }
+            page = datasetRepository.findSummaries(spec, pageable);
         }
 
+        Set<Long> accessibleIds = findAccessibleDatasetIds(page.getContent());
+
         List<DatasetResponse> content = page.getContent().stream()
-                .map(dataset -> mapToResponse(dataset, checkUserAccess(dataset.getId())))
+                .map(summary -> mapToResponse(summary, accessibleIds.contains(summary.id())))
                 .collect(Collectors.toList());
 
         return PageResponse.<DatasetResponse>builder()
@@ -205,6 +268,7 @@ public class DatasetService {
                 .totalPages(page.getTotalPages())
                 .last(page.isLast())
                 .first(page.isFirst())
+                .facets(facets)
                 .build();
     }
 
@@ -212,17 +276,16 @@ public class DatasetService {
         Dataset dataset = datasetRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Dataset not found"));
 
-        dataset.setViewCount(dataset.getViewCount() + 1);
-        datasetRepository.save(dataset);
+        counterService.recordView(id);
 
-        return mapToResponse(dataset, checkUserAccess(id));
+        return mapToResponse(dataset, findDetail(id), checkUserAccess(id));
     }
 
     public List<DatasetResponse> getMyDatasets() {
         Long providerId = UserContextHolder.getCurrentUserId();
 
-        return datasetRepository.findByProviderId(providerId).stream()
-                .map(dataset -> mapToResponse(dataset, true))
+        return datasetRepository.findSummaries(DatasetSpecifications.providedBy(providerId), Sort.unsorted()).stream()
+                .map(summary -> mapToResponse(summary, true))
                 .collect(Collectors.toList());
     }
 
@@ -235,7 +298,62 @@ public class DatasetService {
             throw new RuntimeException("Access denied");
         }
 
+        detailRepository.deleteById(id);
         datasetRepository.delete(dataset);
+        searchIndex.remove(id);
+        facetIndex.remove(id);
+        statsService.datasetDeleted(dataset);
+        counterService.forget(id);
+        gatewayCacheClient.purgeDataset(id);
+        gatewayCacheClient.purgeCategories();
+    }
+
+    /**
+     * Narrows keyword hits down to those that also pass the filters, keeping
+     * the relevance order. The facet index answers every search filter in
+     * memory; until it is built, one filtered ID query is used instead.
+     */
+    private List<Long> retainMatching(List<Long> rankedIds, DatasetSearchRequest searchRequest,
+                                      Specification<Dataset> filters) {
+        if (facetIndex.isReady()) {
+            return facetIndex.retainMatching(rankedIds, searchRequest);
+        }
+
+        Set<Long> matching = new HashSet<>(datasetRepository.findIds(filters));
+        return rankedIds.stream()
+                .filter(matching::contains)
+                .collect(Collectors.toList());
+    }
+
+    // The request's default order, which keyword searches replace with relevance
+    private static boolean isDefaultSort(DatasetSearchRequest searchRequest) {
+        return DEFAULT_SORT.equals(searchRequest.getSortBy())
+                && Sort.Direction.DESC.name().equalsIgnoreCase(searchRequest.getSortDirection());
+    }
+
+    /**
+     * Pages through IDs ranked by the in-memory index, only the requested
+     * page of rows is loaded from the database.
+     */
+    private Page<DatasetSummary> loadRankedPage(List<Long> rankedIds, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+        List<Long> pageIds = rankedIds.subList(from, to);
+
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(Collections.emptyList(), pageable, rankedIds.size());
+        }
+
+        Map<Long, DatasetSummary> byId = datasetRepository
+                .findSummaries(DatasetSpecifications.idIn(pageIds), Sort.unsorted()).stream()
+                .collect(Collectors.toMap(DatasetSummary::id, Function.identity()));
+
+        List<DatasetSummary> content = pageIds.stream()
+                .map(byId::get)
+                .filter(summary -> summary != null)
+                .collect(Collectors.toList());
+
+        return new PageImpl<>(content, pageable, rankedIds.size());
     }
 
     private boolean checkUserAccess(Long datasetId) {
@@ -248,11 +366,49 @@ public class DatasetService {
                 .isPresent();
     }
 
+    /**
+     * Resolves which of the given datasets the current user can access
+     * with a single query, instead of one lookup per row.
+     */
+    private Set<Long> findAccessibleDatasetIds(List<DatasetSummary> datasets) {
+        Long userId = UserContextHolder.getCurrentUserId();
+        if (userId == null || datasets.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        List<Long> datasetIds = datasets.stream()
+                .map(DatasetSummary::id)
+                .collect(Collectors.toList());
+
+        return new HashSet<>(accessRepository.findActiveDatasetIds(userId, datasetIds, LocalDateTime.now()));
+    }
+
+    /**
+     * Stores sample data and schema in dataset_details. No row is kept when
+     * both are empty.
+     */
+    private DatasetDetail saveDetail(Long datasetId, DatasetRequest request) {
+        if (request.getSampleData() == null && request.getSchema() == null) {
+            detailRepository.deleteById(datasetId);
+            return null;
+        }
+
+        return detailRepository.save(DatasetDetail.builder()
+                .datasetId(datasetId)
+                .sampleData(request.getSampleData())
+                .datasetSchema(request.getSchema())
+                .build());
+    }
+
+    private DatasetDetail findDetail(Long datasetId) {
+        return detailRepository.findById(datasetId).orElse(null);
+    }
+
     private String generateApiKey() {
         return "evdata_" + UUID.randomUUID().toString().replace("-", "");
     }
 
-    private DatasetResponse mapToResponse(Dataset dataset, boolean hasAccess) {
+    private DatasetResponse mapToResponse(Dataset dataset, DatasetDetail detail, boolean hasAccess) {
         return DatasetResponse.builder()
                 .id(dataset.getId())
                 .name(dataset.getName())
@@ -279,9 +435,9 @@ public class DatasetService {
                 .recordCount(dataset.getRecordCount())
                 .apiEndpoint(hasAccess ? dataset.getApiEndpoint() : null)
                 .tags(dataset.getTags())
-                .sampleData(dataset.getSampleData())
-                .downloadCount(dataset.getDownloadCount())
-                .viewCount(dataset.getViewCount())
+                .sampleData(detail != null ? detail.getSampleData() : null)
+                .downloadCount(dataset.getDownloadCount() + (int) counterService.pendingDownloads(dataset.getId()))
+                .viewCount(dataset.getViewCount() + (int) counterService.pendingViews(dataset.getId()))
                 .purchaseCount(dataset.getPurchaseCount())
                 .rating(dataset.getRating())
                 .ratingCount(dataset.getRatingCount())
@@ -292,4 +448,44 @@ public class DatasetService {
                 .hasAccess(hasAccess)
                 .build();
     }
-}
\ No newline at end of file
+
+    // List view: no description or sample data
+    private DatasetResponse mapToResponse(DatasetSummary summary, boolean hasAccess) {
+        return DatasetResponse.builder()
+                .id(summary.id())
+                .name(summary.name())
+                .code(summary.code())
+                .categoryId(summary.categoryId())
+                .categoryName(summary.categoryName())
+                .providerId(summary.providerId())
+                .providerName(summary.providerName())
+                .dataType(summary.dataType())
+                .format(summary.format())
+                .status(summary.status())
+                .pricingModel(summary.pricingModel())
+                .price(summary.price())
+                .currency(summary.currency())
+                .usageRights(summary.usageRights())
+                .region(summary.region())
+                .country(summary.country())
+                .city(summary.city())
+                .dataStartDate(summary.dataStartDate())
+                .dataEndDate(summary.dataEndDate())
+                .fileUrl(hasAccess ? summary.fileUrl() : null)
+                .fileSize(summary.fileSize())
+                .recordCount(summary.recordCount())
+                .apiEndpoint(hasAccess ? summary.apiEndpoint() : null)
+                .tags(summary.tags())
+                .downloadCount(summary.downloadCount() + (int) counterService.pendingDownloads(summary.id()))
+                .viewCount(summary.viewCount() + (int) counterService.pendingViews(summary.id()))
+                .purchaseCount(summary.purchaseCount())
+                .rating(summary.rating())
+                .ratingCount(summary.ratingCount())
+                .anonymized(summary.anonymized())
+                .gdprCompliant(summary.gdprCompliant())
+                .createdAt(summary.createdAt())
+                .publishedAt(summary.publishedAt())
+                .hasAccess(hasAccess)
+                .build();
+    }
+}
@@ -0,0 +1,210 @@
+package com.nguyenquyen.dev.dataservice.service;
+
+import com.nguyenquyen.dev.dataservice.dto.response.DatasetStatsResponse;
+import com.nguyenquyen.dev.dataservice.entity.DataCategory;
+import com.nguyenquyen.dev.dataservice.entity.Dataset;
+import com.nguyenquyen.dev.dataservice.repository.DataCategoryRepository;
+import com.nguyenquyen.dev.dataservice.repository.DatasetAccessRepository;
+import com.nguyenquyen.dev.dataservice.repository.DatasetRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory snapshot of the marketplace statistics shown on the admin dashboard.
+ * Dataset and access writes update it incrementally; a periodic rebuild from
+ * GROUP BY COUNT queries corrects any drift. Reading it costs O(categories).
+ */
+@Service
+public class DatasetStatsService {
+
+    @Autowired
+    private DatasetRepository datasetRepository;
+
+    @Autowired
+    private DatasetAccessRepository accessRepository;
+
+    @Autowired
+    private DataCategoryRepository categoryRepository;
+
+    @Autowired
+    private DatasetCounterService counterService;
+
+    private long totalDatasets;
+    private long publishedDatasets;
+    private long totalPurchases;
+    private long totalConsumers;
+    private double ratingSum;
+    private long ratedDatasets;
+    private final Map<Long, Long> datasetsByCategoryId = new HashMap<>();
+    private final Map<String, Long> datasetsByType = new HashMap<>();
+    private final Map<Long, Long> datasetsByProvider = new HashMap<>();
+
+    // Downloads are recorded on a hot path, keep them off the lock
+    private final LongAdder totalDownloads = new LongAdder();
+
+    /**
+     * The parts of a dataset that the snapshot is keyed on. Capture it before
+     * mutating a dataset so the old contribution can be subtracted.
+     */
+    public record Entry(Long categoryId, String dataType, Long providerId, boolean published) {
+    }
+
+    public static Entry entryOf(Dataset dataset) {
+        return new Entry(
+                dataset.getCategory().getId(),
+                dataset.getDataType(),
+                dataset.getProviderId(),
+                "PUBLISHED".equals(dataset.getStatus())
+        );
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${dataset.stats.rebuild-interval-ms:900000}",
+            fixedDelayString = "${dataset.stats.rebuild-interval-ms:900000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Recomputes the snapshot with grouped aggregate queries.
+     */
+    public void rebuild() {
+        long datasets = datasetRepository.count();
+        Long published = datasetRepository.countPublishedDatasets();
+        Long downloads = datasetRepository.sumTotalDownloads();
+        Long purchases = datasetRepository.sumTotalPurchases();
+        Long consumers = accessRepository.countTotalConsumers();
+        List<Object[]> ratings = datasetRepository.sumRatingsOfRatedDatasets();
+
+        Map<Long, Long> byCategory = toCountMap(datasetRepository.countByCategory());
+        Map<String, Long> byType = toCountMap(datasetRepository.countByDataType());
+        Map<Long, Long> byProvider = toCountMap(datasetRepository.countByProvider());
+
+        synchronized (this) {
+            totalDatasets = datasets;
+            publishedDatasets = published != null ? published : 0;
+            totalPurchases = purchases != null ? purchases : 0;
+            totalConsumers = consumers != null ? consumers : 0;
+
+            Object[] ratingRow = ratings.isEmpty() ? null : ratings.get(0);
+            ratingSum = ratingRow != null ? ((Number) ratingRow[0]).doubleValue() : 0.0;
+            ratedDatasets = ratingRow != null ? ((Number) ratingRow[1]).longValue() : 0;
+
+            datasetsByCategoryId.clear();
+            datasetsByCategoryId.putAll(byCategory);
+            datasetsByType.clear();
+            datasetsByType.putAll(byType);
+            datasetsByProvider.clear();
+            datasetsByProvider.putAll(byProvider);
+
+            totalDownloads.reset();
+            totalDownloads.add((downloads != null ? downloads : 0) + counterService.pendingDownloadsTotal());
+        }
+    }
+
+    public synchronized void datasetCreated(Dataset dataset) {
+        add(entryOf(dataset), 1);
+    }
+
+    public synchronized void datasetChanged(Entry before, Dataset after) {
+        add(before, -1);
+        add(entryOf(after), 1);
+    }
+
+    public synchronized void datasetDeleted(Dataset dataset) {
+        add(entryOf(dataset), -1);
+        totalPurchases -= dataset.getPurchaseCount();
+        totalDownloads.add(-(dataset.getDownloadCount() + counterService.pendingDownloads(dataset.getId())));
+        if (dataset.getRatingCount() > 0) {
+            ratingSum -= dataset.getRating();
+            ratedDatasets--;
+        }
+    }
+
+    public synchronized void accessGranted(boolean newConsumer) {
+        totalPurchases++;
+        if (newConsumer) {
+            totalConsumers++;
+        }
+    }
+
+    public synchronized void ratingChanged(double oldRating, int oldCount, double newRating, int newCount) {
+        if (oldCount > 0) {
+            ratingSum -= oldRating;
+            ratedDatasets--;
+        }
+        if (newCount > 0) {
+            ratingSum += newRating;
+            ratedDatasets++;
+        }
+    }
+
+    public void downloadRecorded() {
+        totalDownloads.increment();
+    }
+
+    public DatasetStatsResponse getStats() {
+        List<DataCategory> categories = categoryRepository.findAll();
+
+        synchronized (this) {
+            Map<String, Long> byCategoryName = new HashMap<>();
+            categories.forEach(category ->
+                    byCategoryName.put(category.getName(), datasetsByCategoryId.getOrDefault(category.getId(), 0L)));
+
+            return DatasetStatsResponse.builder()
+                    .totalDatasets(totalDatasets)
+                    .publishedDatasets(publishedDatasets)
+                    .totalDownloads(totalDownloads.sum())
+                    .totalPurchases(totalPurchases)
+                    .totalRevenue(BigDecimal.ZERO) // Will be calculated from payment service
+                    .averageRating(ratedDatasets > 0 ? ratingSum / ratedDatasets : 0.0)
+                    .totalProviders((long) datasetsByProvider.size())
+                    .totalConsumers(totalConsumers)
+                    .datasetsByCategory(byCategoryName)
+                    .datasetsByType(new HashMap<>(datasetsByType))
+                    .timestamp(LocalDateTime.now())
+                    .build();
+        }
+    }
+
+    // Caller must hold the monitor
+    private void add(Entry entry, long delta) {
+        totalDatasets += delta;
+        if (entry.published()) {
+            publishedDatasets += delta;
+        }
+        adjust(datasetsByCategoryId, entry.categoryId(), delta);
+        adjust(datasetsByType, entry.dataType(), delta);
+        adjust(datasetsByProvider, entry.providerId(), delta);
+    }
+
+    private static <K> void adjust(Map<K, Long> counts, K key, long delta) {
+        counts.merge(key, delta, Long::sum);
+        if (counts.get(key) <= 0) {
+            counts.remove(key);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> Map<K, Long> toCountMap(List<Object[]> rows) {
+        Map<K, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put((K) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,104 @@
+package com.nguyenquyen.dev.dataservice.security;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.*;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of decoding a bearer token through CachingJwtDecoder against the plain
+ * NimbusJwtDecoder: a cache hit, a miss on a cache that is full of live
+ * tokens (nothing to evict), and the undecorated HS256 verification.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.nguyenquyen.dev.dataservice.security.CachingJwtDecoderBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CachingJwtDecoderBenchmark {
+
+    private static final int MISS_TOKENS = 4096;
+
+    @Param({"1000", "10000"})
+    private int maxSize;
+
+    private JwtDecoder nimbusDecoder;
+    private CachingJwtDecoder cachingDecoder;
+
+    private String hotToken;
+    private String[] missTokens;
+    private int nextMiss;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SecretKey key = new SecretKeySpec(
+                "benchmark-secret-benchmark-secret-32b".getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        JwtEncoder encoder = new NimbusJwtEncoder(new ImmutableSecret<>(key));
+        nimbusDecoder = NimbusJwtDecoder.withSecretKey(key).macAlgorithm(MacAlgorithm.HS256).build();
+        cachingDecoder = new CachingJwtDecoder(nimbusDecoder, maxSize, new SimpleMeterRegistry());
+
+        hotToken = token(encoder, 0);
+        cachingDecoder.decode(hotToken);
+
+        // Fill the cache with tokens that stay valid for the whole run
+        for (int i = 1; i < maxSize; i++) {
+            cachingDecoder.decode(token(encoder, i));
+        }
+
+        missTokens = new String[MISS_TOKENS];
+        for (int i = 0; i < MISS_TOKENS; i++) {
+            missTokens[i] = token(encoder, maxSize + i);
+        }
+    }
+
+    @Benchmark
+    public Jwt hit() {
+        return cachingDecoder.decode(hotToken);
+    }
+
+    @Benchmark
+    public Jwt missOnFullCache() {
+        String token = missTokens[nextMiss];
+        nextMiss = (nextMiss + 1) % MISS_TOKENS;
+        return cachingDecoder.decode(token);
+    }
+
+    @Benchmark
+    public Jwt uncached() {
+        return nimbusDecoder.decode(hotToken);
+    }
+
+    private static String token(JwtEncoder encoder, long userId) {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .subject("user" + userId + "@example.com")
+                .claim("userId", userId)
+                .claim("role", "CONSUMER")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(3600))
+                .build();
+        return encoder.encode(JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims))
+                .getTokenValue();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CachingJwtDecoderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,22 @@
+-- Refresh tokens stored as SHA-256 digests (token_hash) instead of raw tokens.
+-- Run once against databases created from the earlier schema.sql, before
+-- starting the new identity-service. Hibernate (ddl-auto: update) adds
+-- token_hash, but it never relaxes NOT NULL on token, so without this
+-- migration every login, register and refresh fails with
+-- "Column 'token' cannot be null".
+
+-- 1. New rows only carry the digest
+ALTER TABLE refresh_tokens MODIFY token VARCHAR(500) NULL;
+
+-- 2. Digest column (skip if the new service already started and created it)
+ALTER TABLE refresh_tokens ADD COLUMN token_hash CHAR(64) NULL AFTER id;
+
+-- 3. Backfill: SHA2() yields the same lowercase hex as TokenHasher.sha256Hex
+UPDATE refresh_tokens SET token_hash = SHA2(token, 256)
+WHERE token_hash IS NULL AND token IS NOT NULL;
+
+-- 4. Lookup index, same name as declared on the RefreshToken entity (skip if Hibernate already created it)
+CREATE UNIQUE INDEX uk_refresh_token_hash ON refresh_tokens (token_hash);
+
+-- 5. Raw tokens are no longer needed once their digest is stored
+UPDATE refresh_tokens SET token = NULL WHERE token_hash IS NOT NULL;
@@ -31,17 +31,22 @@ CREATE TABLE IF NOT EXISTS users (
 -- Refresh Tokens Table
 CREATE TABLE IF NOT EXISTS refresh_tokens (
                                               id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                                              token VARCHAR(500) NOT NULL UNIQUE,
+                                              token_hash CHAR(64),
+    token VARCHAR(500), -- legacy raw token, NULL for rows written with token_hash
     user_id BIGINT NOT NULL,
     expiry_date DATETIME NOT NULL,
     revoked BOOLEAN DEFAULT FALSE,
     created_at DATETIME NOT NULL,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
-    INDEX idx_token (token),
+    UNIQUE KEY uk_refresh_token_hash (token_hash),
     INDEX idx_user_id (user_id),
-    INDEX idx_expiry_date (expiry_date)
+    INDEX idx_user_revoked (user_id, revoked),
+    INDEX idx_expiry_date (expiry_date),
+    INDEX idx_revoked (revoked)
     ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- Existing databases: run migrations/001_refresh_token_hash.sql once
+
 -- Insert Initial Admin User (password: admin123)
 INSERT INTO users (email, password, full_name, role, status, email_verified, organization, created_at, updated_at)
 VALUES (
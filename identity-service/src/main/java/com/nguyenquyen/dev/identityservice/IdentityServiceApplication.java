@@ -8,6 +8,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Arrays;
@@ -15,6 +16,7 @@ import java.util.Arrays;
 @SpringBootApplication
 @EnableJpaAuditing
 @EnableDiscoveryClient
+@EnableScheduling
 public class IdentityServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,35 @@
+package com.nguyenquyen.dev.identityservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class LoginExecutorConfig {
+
+    /**
+     * Bounded pool for password verification. BCrypt is deliberately slow, so
+     * logins run here instead of on Tomcat threads; when the queue is full new
+     * logins are rejected rather than starving other endpoints.
+     */
+    @Bean(name = "loginExecutor")
+    public ThreadPoolTaskExecutor loginExecutor(
+            @Value("${identity.login.pool-size:0}") int poolSize,
+            @Value("${identity.login.queue-capacity:200}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("login-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,9 +1,7 @@
 package com.nguyenquyen.dev.identityservice.controller;
 
 import com.nguyenquyen.dev.identityservice.dto.response.UserResponse;
-import com.nguyenquyen.dev.identityservice.entity.RefreshToken;
-import com.nguyenquyen.dev.identityservice.entity.User;
-import com.nguyenquyen.dev.identityservice.repository.RefreshTokenRepository;
+import com.nguyenquyen.dev.identityservice.service.AdminStatsService;
 import com.nguyenquyen.dev.identityservice.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -11,11 +9,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -26,7 +21,7 @@ public class AdminController {
     private UserService userService;
 
     @Autowired
-    private RefreshTokenRepository refreshTokenRepository;
+    private AdminStatsService adminStatsService;
 
     @GetMapping("/users")
     public ResponseEntity<?> getAllUsers() {
@@ -45,36 +40,7 @@ public class AdminController {
     @GetMapping("/users/stats")
     public ResponseEntity<?> getUserStats() {
         try {
-            List<User> allUsers = userService.getAllUsers().stream()
-                    .map(ur -> User.builder()
-                            .role(ur.getRole())
-                            .status(ur.getStatus())
-                            .build())
-                    .collect(Collectors.toList());
-
-            long totalUsers = allUsers.size();
-            long activeUsers = allUsers.stream()
-                    .filter(u -> "ACTIVE".equals(u.getStatus()))
-                    .count();
-            long dataConsumers = allUsers.stream()
-                    .filter(u -> "DATA_CONSUMER".equals(u.getRole()))
-                    .count();
-            long dataProviders = allUsers.stream()
-                    .filter(u -> "DATA_PROVIDER".equals(u.getRole()))
-                    .count();
-            long admins = allUsers.stream()
-                    .filter(u -> "ADMIN".equals(u.getRole()))
-                    .count();
-
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("totalUsers", totalUsers);
-            stats.put("activeUsers", activeUsers);
-            stats.put("dataConsumers", dataConsumers);
-            stats.put("dataProviders", dataProviders);
-            stats.put("admins", admins);
-            stats.put("timestamp", LocalDateTime.now());
-
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok(adminStatsService.getUserStats());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("message", "Failed to fetch stats", "error", e.getMessage()));
@@ -184,26 +150,10 @@ public class AdminController {
     @GetMapping("/tokens/stats")
     public ResponseEntity<?> getTokenStats() {
         try {
-            long totalTokens = refreshTokenRepository.count();
-            long expiredTokens = refreshTokenRepository.findAll().stream()
-                    .filter(RefreshToken::isExpired)
-                    .count();
-            long revokedTokens = refreshTokenRepository.findAll().stream()
-                    .filter(RefreshToken::getRevoked)
-                    .count();
-            long activeTokens = totalTokens - expiredTokens - revokedTokens;
-
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("totalTokens", totalTokens);
-            stats.put("activeTokens", activeTokens);
-            stats.put("expiredTokens", expiredTokens);
-            stats.put("revokedTokens", revokedTokens);
-            stats.put("timestamp", LocalDateTime.now());
-
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok(adminStatsService.getTokenStats());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("message", "Failed to fetch token stats", "error", e.getMessage()));
         }
     }
-}
\ No newline at end of file
+}
@@ -7,7 +7,14 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_expiry_date", columnList = "expiryDate"),
+        @Index(name = "idx_user_revoked", columnList = "user_id, revoked"),
+        @Index(name = "idx_revoked", columnList = "revoked")
+}, uniqueConstraints = {
+        // Named so migrations/001_refresh_token_hash.sql and Hibernate agree on it
+        @UniqueConstraint(name = "uk_refresh_token_hash", columnNames = "token_hash")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,7 +26,12 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true, length = 500)
+    // SHA-256 hex digest of the token, the lookup key
+    @Column(length = 64, columnDefinition = "CHAR(64)")
+    private String tokenHash;
+
+    // Raw token, only set on rows created before tokenHash existed
+    @Column(length = 500)
     private String token;
 
     @ManyToOne(fetch = FetchType.LAZY)
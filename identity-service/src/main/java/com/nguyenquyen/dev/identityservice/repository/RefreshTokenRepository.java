@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -12,10 +13,33 @@ import java.util.Optional;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
-    Optional<RefreshToken> findByToken(String token);
+    @Query("SELECT rt FROM RefreshToken rt JOIN FETCH rt.user WHERE rt.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHash(@Param("tokenHash") String tokenHash);
+
+    // Legacy rows stored the raw token
+    @Query("SELECT rt FROM RefreshToken rt JOIN FETCH rt.user WHERE rt.token = :token")
+    Optional<RefreshToken> findByToken(@Param("token") String token);
 
     List<RefreshToken> findByUserId(Long userId);
 
+    // Returns 0 if the token was already revoked, e.g. by a concurrent refresh
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.id = :id AND rt.revoked = false")
+    int revokeById(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.user.id = :userId AND rt.revoked = false")
+    int revokeAllByUserId(@Param("userId") Long userId);
+
+    // total, active, expired, revoked in one pass; expired and revoked may overlap
+    @Query("SELECT COUNT(rt), " +
+            "SUM(CASE WHEN rt.revoked = false AND rt.expiryDate >= :now THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN rt.expiryDate < :now THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN rt.revoked = true THEN 1 ELSE 0 END) FROM RefreshToken rt")
+    List<Object[]> countTokenStats(@Param("now") LocalDateTime now);
+
     @Modifying
     @Query("DELETE FROM RefreshToken rt WHERE rt.user.id = :userId")
     void deleteByUserId(@Param("userId") Long userId);
@@ -23,4 +47,15 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     @Modifying
     @Query("DELETE FROM RefreshToken rt WHERE rt.expiryDate < :now OR rt.revoked = true")
     void deleteExpiredAndRevoked(@Param("now") LocalDateTime now);
+
+    // Bounded chunks of deleteExpiredAndRevoked for the compaction job, one per index
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM refresh_tokens WHERE expiry_date < :now LIMIT :limit", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM refresh_tokens WHERE revoked = true LIMIT :limit", nativeQuery = true)
+    int deleteRevokedBatch(@Param("limit") int limit);
 }
\ No newline at end of file
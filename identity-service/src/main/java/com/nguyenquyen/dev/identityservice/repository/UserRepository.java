@@ -20,4 +20,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("SELECT u FROM User u WHERE u.role = :role AND u.status = :status")
     List<User> findByRoleAndStatus(@Param("role") String role, @Param("status") String status);
+
+    @Query("SELECT u.role, u.status, COUNT(u) FROM User u GROUP BY u.role, u.status")
+    List<Object[]> countByRoleAndStatus();
 }
\ No newline at end of file
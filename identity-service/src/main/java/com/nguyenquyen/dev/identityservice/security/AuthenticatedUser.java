@@ -0,0 +1,24 @@
+package com.nguyenquyen.dev.identityservice.security;
+
+import com.nguyenquyen.dev.identityservice.entity.User;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * UserDetails that keeps the User entity loaded during authentication,
+ * so the login flow can reuse it instead of querying the user again.
+ */
+public class AuthenticatedUser extends org.springframework.security.core.userdetails.User {
+
+    private final User user;
+
+    public AuthenticatedUser(User user) {
+        super(user.getEmail(), user.getPassword(), List.of(new SimpleGrantedAuthority(user.getRole())));
+        this.user = user;
+    }
+
+    public User getUser() {
+        return user;
+    }
+}
@@ -23,15 +23,7 @@ public class CustomUserDetailsService implements UserDetailsService {
             throw new RuntimeException("User account is not active");
         }
 
-        return org.springframework.security.core.userdetails.User
-                .withUsername(user.getEmail())
-                .password(user.getPassword())
-                .authorities(user.getRole())
-                .accountExpired(false)
-                .accountLocked(false)
-                .credentialsExpired(false)
-                .disabled(false)
-                .build();
+        return new AuthenticatedUser(user);
     }
 
     public UserDetails loadUserById(Long userId) {
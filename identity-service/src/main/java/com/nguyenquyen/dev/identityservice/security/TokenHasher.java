@@ -0,0 +1,25 @@
+package com.nguyenquyen.dev.identityservice.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 digests of refresh tokens. The 64-char hex digest is what gets
+ * stored and indexed, so lookups use a narrow fixed-width key and the raw
+ * token never reaches the database.
+ */
+public final class TokenHasher {
+
+    private TokenHasher() {}
+
+    public static String sha256Hex(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
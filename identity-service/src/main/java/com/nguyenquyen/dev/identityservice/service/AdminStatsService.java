@@ -0,0 +1,127 @@
+package com.nguyenquyen.dev.identityservice.service;
+
+import com.nguyenquyen.dev.identityservice.constant.UserRole;
+import com.nguyenquyen.dev.identityservice.constant.UserStatus;
+import com.nguyenquyen.dev.identityservice.repository.RefreshTokenRepository;
+import com.nguyenquyen.dev.identityservice.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * User and refresh-token statistics for the admin dashboard, computed with
+ * grouped COUNT queries and cached for a few seconds so repeated dashboard
+ * loads don't hit the database at all.
+ */
+@Service
+public class AdminStatsService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${identity.stats.cache-ttl-ms:10000}")
+    private long cacheTtlMs;
+
+    private volatile CachedStats userStats;
+    private volatile CachedStats tokenStats;
+
+    public Map<String, Object> getUserStats() {
+        CachedStats cached = userStats;
+        if (cached != null && !cached.isExpired()) {
+            return cached.stats;
+        }
+
+        synchronized (this) {
+            if (userStats == null || userStats.isExpired()) {
+                userStats = new CachedStats(computeUserStats(), cacheTtlMs);
+            }
+            return userStats.stats;
+        }
+    }
+
+    public Map<String, Object> getTokenStats() {
+        CachedStats cached = tokenStats;
+        if (cached != null && !cached.isExpired()) {
+            return cached.stats;
+        }
+
+        synchronized (this) {
+            if (tokenStats == null || tokenStats.isExpired()) {
+                tokenStats = new CachedStats(computeTokenStats(), cacheTtlMs);
+            }
+            return tokenStats.stats;
+        }
+    }
+
+    private Map<String, Object> computeUserStats() {
+        long totalUsers = 0;
+        long activeUsers = 0;
+        Map<String, Long> byRole = new HashMap<>();
+        Map<String, Long> byStatus = new HashMap<>();
+        Map<String, Map<String, Long>> byRoleAndStatus = new HashMap<>();
+
+        for (Object[] row : userRepository.countByRoleAndStatus()) {
+            String role = (String) row[0];
+            String status = (String) row[1];
+            long count = ((Number) row[2]).longValue();
+
+            totalUsers += count;
+            if (UserStatus.ACTIVE.equals(status)) {
+                activeUsers += count;
+            }
+            byRole.merge(role, count, Long::sum);
+            byStatus.merge(status, count, Long::sum);
+            byRoleAndStatus.computeIfAbsent(role, r -> new HashMap<>()).put(status, count);
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalUsers", totalUsers);
+        stats.put("activeUsers", activeUsers);
+        stats.put("dataConsumers", byRole.getOrDefault(UserRole.DATA_CONSUMER, 0L));
+        stats.put("dataProviders", byRole.getOrDefault(UserRole.DATA_PROVIDER, 0L));
+        stats.put("admins", byRole.getOrDefault(UserRole.ADMIN, 0L));
+        stats.put("usersByStatus", byStatus);
+        stats.put("usersByRoleAndStatus", byRoleAndStatus);
+        stats.put("timestamp", LocalDateTime.now());
+        return stats;
+    }
+
+    private Map<String, Object> computeTokenStats() {
+        List<Object[]> rows = refreshTokenRepository.countTokenStats(LocalDateTime.now());
+        Object[] row = rows.isEmpty() ? new Object[4] : rows.get(0);
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalTokens", toLong(row[0]));
+        stats.put("activeTokens", toLong(row[1]));
+        stats.put("expiredTokens", toLong(row[2]));
+        stats.put("revokedTokens", toLong(row[3]));
+        stats.put("timestamp", LocalDateTime.now());
+        return stats;
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private static class CachedStats {
+        private final Map<String, Object> stats;
+        private final long expiresAt;
+
+        private CachedStats(Map<String, Object> stats, long ttlMs) {
+            this.stats = Map.copyOf(stats);
+            this.expiresAt = System.currentTimeMillis() + ttlMs;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
@@ -9,18 +9,21 @@ import com.nguyenquyen.dev.identityservice.entity.RefreshToken;
 import com.nguyenquyen.dev.identityservice.entity.User;
 import com.nguyenquyen.dev.identityservice.repository.RefreshTokenRepository;
 import com.nguyenquyen.dev.identityservice.repository.UserRepository;
+import com.nguyenquyen.dev.identityservice.security.AuthenticatedUser;
 import com.nguyenquyen.dev.identityservice.security.JwtUtil;
+import com.nguyenquyen.dev.identityservice.security.TokenHasher;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Service
 public class AuthService {
@@ -40,34 +43,47 @@ public class AuthService {
     @Autowired
     private AuthenticationManager authenticationManager;
 
-    @Value("${jwt.refresh.expiration}")
-    private Long refreshTokenExpiration;
-
-    public AuthResponse login(LoginRequest request) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-        );
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        user.setLastLoginAt(LocalDateTime.now());
-        userRepository.save(user);
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
 
-        String accessToken = jwtUtil.generateAccessToken(user);
-        String refreshToken = jwtUtil.generateRefreshToken(user);
+    @Autowired
+    @Qualifier("loginExecutor")
+    private Executor loginExecutor;
 
-        saveRefreshToken(user, refreshToken);
+    @Value("${jwt.refresh.expiration}")
+    private Long refreshTokenExpiration;
 
-        return AuthResponse.builder()
-                .accessToken(accessToken)
-                .refreshToken(refreshToken)
-                .tokenType("Bearer")
-                .expiresIn(jwtUtil.getExpirationTime())
-                .user(mapToUserResponse(user))
-                .build();
+    /**
+     * Authenticates on the bounded login pool, reusing the user loaded by
+     * CustomUserDetailsService. lastLoginAt is written behind by LastLoginRecorder.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the login pool is saturated
+     */
+    public CompletableFuture<AuthResponse> login(LoginRequest request) {
+        return CompletableFuture.supplyAsync(() -> {
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
+            );
+
+            User user = ((AuthenticatedUser) authentication.getPrincipal()).getUser();
+
+            LocalDateTime now = LocalDateTime.now();
+            user.setLastLoginAt(now);
+            lastLoginRecorder.record(user.getId(), now);
+
+            String accessToken = jwtUtil.generateAccessToken(user);
+            String refreshToken = jwtUtil.generateRefreshToken(user);
+
+            saveRefreshToken(user, refreshToken);
+
+            return AuthResponse.builder()
+                    .accessToken(accessToken)
+                    .refreshToken(refreshToken)
+                    .tokenType("Bearer")
+                    .expiresIn(jwtUtil.getExpirationTime())
+                    .user(mapToUserResponse(user))
+                    .build();
+        }, loginExecutor);
     }
 
     public AuthResponse register(RegisterRequest request) {
@@ -112,21 +128,24 @@ public class AuthService {
             throw new RuntimeException("Invalid refresh token");
         }
 
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(token)
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(TokenHasher.sha256Hex(token))
+                .or(() -> refreshTokenRepository.findByToken(token))
                 .orElseThrow(() -> new RuntimeException("Refresh token not found"));
 
         if (refreshToken.isExpired() || refreshToken.getRevoked()) {
             throw new RuntimeException("Refresh token is expired or revoked");
         }
 
+        // Conditional update, so a token can only be exchanged once
+        if (refreshTokenRepository.revokeById(refreshToken.getId()) == 0) {
+            throw new RuntimeException("Refresh token is expired or revoked");
+        }
+
         User user = refreshToken.getUser();
 
         String newAccessToken = jwtUtil.generateAccessToken(user);
         String newRefreshToken = jwtUtil.generateRefreshToken(user);
 
-        refreshToken.setRevoked(true);
-        refreshTokenRepository.save(refreshToken);
-
         saveRefreshToken(user, newRefreshToken);
 
         return AuthResponse.builder()
@@ -140,13 +159,15 @@ public class AuthService {
 
     public void logout(String token) {
         if (token != null && jwtUtil.validateToken(token)) {
-            String email = jwtUtil.extractEmail(token);
-            User user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            List<RefreshToken> tokens = refreshTokenRepository.findByUserId(user.getId());
-            tokens.forEach(rt -> rt.setRevoked(true));
-            refreshTokenRepository.saveAll(tokens);
+            Long userId = jwtUtil.extractUserId(token);
+            if (userId == null) {
+                String email = jwtUtil.extractEmail(token);
+                userId = userRepository.findByEmail(email)
+                        .orElseThrow(() -> new RuntimeException("User not found"))
+                        .getId();
+            }
+
+            refreshTokenRepository.revokeAllByUserId(userId);
         }
     }
 
@@ -155,7 +176,7 @@ public class AuthService {
                 .plusSeconds(refreshTokenExpiration / 1000);
 
         RefreshToken refreshToken = RefreshToken.builder()
-                .token(token)
+                .tokenHash(TokenHasher.sha256Hex(token))
                 .user(user)
                 .expiryDate(expiryDate)
                 .revoked(false)
@@ -0,0 +1,67 @@
+package com.nguyenquyen.dev.identityservice.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind lastLoginAt updates. Logins only record the timestamp in
+ * memory; a scheduled flush writes the latest value per user in one JDBC batch.
+ */
+@Service
+public class LastLoginRecorder {
+
+    private static final String FLUSH_SQL = "UPDATE users SET last_login_at = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public void record(Long userId, LocalDateTime loginAt) {
+        pending.merge(userId, loginAt, (current, next) -> next.isAfter(current) ? next : current);
+    }
+
+    @Scheduled(fixedDelayString = "${identity.login.last-login-flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>();
+        for (Long userId : pending.keySet()) {
+            LocalDateTime loginAt = pending.remove(userId);
+            if (loginAt != null) {
+                batch.add(new Object[]{Timestamp.valueOf(loginAt), userId});
+            }
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+        } catch (Exception e) {
+            // Put them back so the next flush retries
+            System.err.println("Failed to flush last login times: " + e.getMessage());
+            for (Object[] row : batch) {
+                record((Long) row[1], ((Timestamp) row[0]).toLocalDateTime());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+}
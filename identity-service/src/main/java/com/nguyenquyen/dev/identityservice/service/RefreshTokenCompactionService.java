@@ -0,0 +1,84 @@
+package com.nguyenquyen.dev.identityservice.service;
+
+import com.nguyenquyen.dev.identityservice.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Periodically purges expired and revoked refresh tokens.
+ * Rows are deleted in LIMIT-bounded chunks, each in its own short
+ * transaction, so compaction never holds locks on refresh_tokens for long.
+ */
+@Service
+public class RefreshTokenCompactionService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer compactionTimer;
+
+    @Value("${identity.token-compaction.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${identity.token-compaction.max-batches-per-run:500}")
+    private int maxBatchesPerRun;
+
+    @Value("${identity.token-compaction.pause-between-batches-ms:50}")
+    private long pauseBetweenBatchesMs;
+
+    public RefreshTokenCompactionService(RefreshTokenRepository refreshTokenRepository,
+                                         MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.meterRegistry = meterRegistry;
+        this.compactionTimer = Timer.builder("identity.refresh_tokens.compaction")
+                .description("Duration of a refresh token compaction run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${identity.token-compaction.initial-delay-ms:60000}",
+            fixedDelayString = "${identity.token-compaction.interval-ms:3600000}")
+    public void compact() {
+        long start = System.nanoTime();
+        long purged = 0;
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            purged += purge("expired", () -> refreshTokenRepository.deleteExpiredBatch(now, batchSize));
+            purged += purge("revoked", () -> refreshTokenRepository.deleteRevokedBatch(batchSize));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Refresh token compaction failed: " + e.getMessage());
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            compactionTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            if (purged > 0) {
+                System.out.println("Refresh token compaction purged " + purged + " tokens in "
+                        + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms");
+            }
+        }
+    }
+
+    private long purge(String reason, IntSupplier deleteBatch) throws InterruptedException {
+        long purged = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int deleted = deleteBatch.getAsInt();
+            purged += deleted;
+            meterRegistry.counter("identity.refresh_tokens.purged", "reason", reason).increment(deleted);
+
+            if (deleted < batchSize) {
+                break;
+            }
+            // Give concurrent logins a chance at the table between chunks
+            Thread.sleep(pauseBetweenBatchesMs);
+        }
+        return purged;
+    }
+}
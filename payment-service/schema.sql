@@ -34,7 +34,8 @@ CREATE TABLE IF NOT EXISTS transactions (
     INDEX idx_provider_id (provider_id),
     INDEX idx_dataset_id (dataset_id),
     INDEX idx_status (status),
-    INDEX idx_transaction_type (transaction_type)
+    INDEX idx_transaction_type (transaction_type),
+    INDEX idx_provider_dataset_created (provider_id, dataset_id, created_at)
     ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- Payment Methods table
@@ -103,4 +104,23 @@ CREATE TABLE IF NOT EXISTS refunds (
     FOREIGN KEY (transaction_id) REFERENCES transactions(id) ON DELETE CASCADE,
     INDEX idx_transaction_id (transaction_id),
     INDEX idx_status (status)
-    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
\ No newline at end of file
+    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+-- Access grant outbox (written with the COMPLETED status, drained by the relay)
+CREATE TABLE IF NOT EXISTS access_grant_outbox (
+                                                   id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                                   transaction_id VARCHAR(100) NOT NULL UNIQUE,
+    dataset_id BIGINT NOT NULL,
+    consumer_id BIGINT NOT NULL,
+    consumer_email VARCHAR(100),
+    consumer_name VARCHAR(200),
+    transaction_type VARCHAR(50) NOT NULL,
+    subscription_days INT,
+    api_calls_limit INT,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME NOT NULL,
+    last_error TEXT,
+    created_at DATETIME NOT NULL,
+    sent_at DATETIME,
+    INDEX idx_outbox_status_next_attempt (status, next_attempt_at)
+    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,14 @@
+package com.nguyenquyen.dev.paymentservice.client;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccessGrantResult {
+    private String transactionId;
+    private String status; // GRANTED, DUPLICATE, REJECTED
+    private Long accessId;
+    private String message;
+}
@@ -1,15 +1,24 @@
 package com.nguyenquyen.dev.paymentservice.client;
 
+import com.nguyenquyen.dev.paymentservice.entity.AccessGrantOutbox;
+import com.nguyenquyen.dev.paymentservice.security.CurrentUserAuthenticationToken;
+import com.nguyenquyen.dev.paymentservice.security.InternalClaimsAuthenticationFilter;
+import com.nguyenquyen.dev.paymentservice.security.ServiceTokenProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 
+import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 @Component
@@ -18,6 +27,12 @@ public class DataServiceClient {
     @Value("${data.service.url}")
     private String dataServiceUrl;
 
+    @Autowired
+    private ServiceTokenProvider serviceTokenProvider;
+
+    @Autowired
+    private DatasetInfoCache datasetCache;
+
     private final WebClient webClient;
 
     public DataServiceClient(WebClient.Builder webClientBuilder) {
@@ -33,21 +48,17 @@ public class DataServiceClient {
         return null;
     }
 
+    private String getInternalClaims() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof CurrentUserAuthenticationToken token) {
+            return token.getInternalClaims();
+        }
+        return null;
+    }
+
     public DatasetInfo getDatasetById(Long datasetId) {
         try {
-            String token = getJwtToken();
-
-            WebClient.RequestHeadersSpec<?> spec = webClient.get()
-                    .uri(dataServiceUrl + "/api/datasets/" + datasetId);
-
-            if (token != null) {
-                spec = spec.header("Authorization", "Bearer " + token);
-            }
-
-            return spec.retrieve()
-                    .bodyToMono(DatasetInfo.class)
-                    .timeout(Duration.ofSeconds(5))
-                    .block();
+            return fetchDatasetById(datasetId).join();
         } catch (Exception e) {
             System.err.println("Error fetching dataset: " + e.getMessage());
             e.printStackTrace();
@@ -55,65 +66,90 @@ public class DataServiceClient {
         }
     }
 
-    public void grantDatasetAccess(Long datasetId, Long userId, String accessType,
-                                   Integer durationDays, Integer apiCallsLimit,
-                                   String transactionId) {
-        try {
-            String token = getJwtToken();
-
-            // Map accessType to what Data Service expects
-            String dataAccessType;
-            if ("PURCHASE".equals(accessType)) {
-                dataAccessType = "DOWNLOAD";
-            } else if ("SUBSCRIPTION".equals(accessType)) {
-                dataAccessType = "SUBSCRIPTION";
-            } else if ("API_ACCESS".equals(accessType)) {
-                dataAccessType = "API";
-            } else {
-                dataAccessType = "DOWNLOAD"; // default
-            }
+    /**
+     * Non-blocking variant of getDatasetById, served from DatasetInfoCache when
+     * possible. The caller's token is read immediately, so this must be called
+     * on the request thread.
+     */
+    public CompletableFuture<DatasetInfo> fetchDatasetById(Long datasetId) {
+        String token = getJwtToken();
+        String internalClaims = getInternalClaims();
+        return datasetCache.get(datasetId, id -> requestDatasetById(id, token, internalClaims));
+    }
+
+    public void invalidateDataset(Long datasetId) {
+        datasetCache.invalidate(datasetId);
+    }
 
-            // Build request matching DatasetAccessRequest DTO
-            Map<String, Object> request = new HashMap<>();
-            request.put("datasetId", datasetId);
-            request.put("accessType", dataAccessType);
+    public void invalidateAllDatasets() {
+        datasetCache.invalidateAll();
+    }
 
-            // Only add optional fields if they have values
-            if (durationDays != null && durationDays > 0) {
-                request.put("durationDays", durationDays);
-            }
-            if (apiCallsLimit != null && apiCallsLimit > 0) {
-                request.put("apiCallsLimit", apiCallsLimit);
-            }
+    private CompletableFuture<DatasetInfo> requestDatasetById(Long datasetId, String token, String internalClaims) {
+        WebClient.RequestHeadersSpec<?> spec = webClient.get()
+                .uri(dataServiceUrl + "/api/datasets/" + datasetId);
 
-            System.out.println("Granting dataset access with request: " + request);
+        if (token != null) {
+            spec = spec.header("Authorization", "Bearer " + token);
+        }
+        // Lets Data Service skip verifying the relayed JWT again
+        if (internalClaims != null) {
+            spec = spec.header(InternalClaimsAuthenticationFilter.INTERNAL_CLAIMS_HEADER, internalClaims);
+        }
 
-            WebClient.RequestHeadersSpec<?> spec = webClient.post()
-                    .uri(dataServiceUrl + "/api/access/grant")
-                    .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
-                    .bodyValue(request);
+        return spec.retrieve()
+                .bodyToMono(DatasetInfo.class)
+                .timeout(Duration.ofSeconds(5))
+                .toFuture();
+    }
 
-            if (token != null) {
-                spec = spec.header("Authorization", "Bearer " + token);
+    /**
+     * Delivers a batch of outbox grants to Data Service in one call, authenticated
+     * with the service token. Errors propagate so the relay can retry; per-grant
+     * outcomes are returned in request order.
+     */
+    public List<AccessGrantResult> grantDatasetAccessBatch(List<AccessGrantOutbox> grants) {
+        List<Map<String, Object>> items = new ArrayList<>(grants.size());
+        for (AccessGrantOutbox grant : grants) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("transactionId", grant.getTransactionId());
+            item.put("datasetId", grant.getDatasetId());
+            item.put("userId", grant.getConsumerId());
+            item.put("userEmail", grant.getConsumerEmail());
+            item.put("userName", grant.getConsumerName());
+            item.put("accessType", toDataAccessType(grant.getTransactionType()));
+
+            // Only add optional fields if they have values
+            if (grant.getSubscriptionDays() != null && grant.getSubscriptionDays() > 0) {
+                item.put("durationDays", grant.getSubscriptionDays());
             }
+            if (grant.getApiCallsLimit() != null && grant.getApiCallsLimit() > 0) {
+                item.put("apiCallsLimit", grant.getApiCallsLimit());
+            }
+            items.add(item);
+        }
 
-            spec.retrieve()
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofSeconds(5))
-                    .doOnSuccess(response ->
-                            System.out.println("Successfully granted dataset access for transaction: " + transactionId))
-                    .doOnError(error ->
-                            System.err.println("Failed to grant access: " + error.getMessage()))
-                    .block();
+        List<AccessGrantResult> results = webClient.post()
+                .uri(dataServiceUrl + "/api/access/grant-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + serviceTokenProvider.getToken())
+                .bodyValue(Map.of("grants", items))
+                .retrieve()
+                .bodyToFlux(AccessGrantResult.class)
+                .collectList()
+                .timeout(Duration.ofSeconds(10))
+                .block();
+
+        return results != null ? results : List.of();
+    }
 
-        } catch (Exception e) {
-            System.err.println("Error granting dataset access: " + e.getMessage());
-            if (e instanceof org.springframework.web.reactive.function.client.WebClientResponseException) {
-                org.springframework.web.reactive.function.client.WebClientResponseException webEx =
-                        (org.springframework.web.reactive.function.client.WebClientResponseException) e;
-                System.err.println("Response body: " + webEx.getResponseBodyAsString());
-            }
-            // Don't throw exception, just log warning - transaction is already saved
+    // Map accessType to what Data Service expects
+    private String toDataAccessType(String transactionType) {
+        if ("SUBSCRIPTION".equals(transactionType)) {
+            return "SUBSCRIPTION";
+        } else if ("API_ACCESS".equals(transactionType)) {
+            return "API";
         }
+        return "DOWNLOAD"; // PURCHASE and default
     }
-}
\ No newline at end of file
+}
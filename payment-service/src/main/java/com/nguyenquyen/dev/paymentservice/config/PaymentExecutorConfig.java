@@ -0,0 +1,33 @@
+package com.nguyenquyen.dev.paymentservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class PaymentExecutorConfig {
+
+    /**
+     * Bounded pool for the checkout pipeline (persisting, completing and granting).
+     * When the queue is full new checkouts are rejected instead of piling up.
+     */
+    @Bean(name = "paymentExecutor")
+    public ThreadPoolTaskExecutor paymentExecutor(
+            @Value("${payment.pipeline.core-pool-size:16}") int corePoolSize,
+            @Value("${payment.pipeline.max-pool-size:32}") int maxPoolSize,
+            @Value("${payment.pipeline.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("payment-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,17 +1,24 @@
 package com.nguyenquyen.dev.paymentservice.config;
 
+import com.nguyenquyen.dev.paymentservice.security.CachingJwtDecoder;
+import com.nguyenquyen.dev.paymentservice.security.CurrentUserAuthenticationToken;
+import com.nguyenquyen.dev.paymentservice.security.InternalClaimsAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -26,8 +33,21 @@ import java.util.Arrays;
 public class SecurityConfig {
     @Value("${jwt.secret}")
     private String jwtSecret;
+
+    @Value("${jwt.cache.max-size:10000}")
+    private int jwtCacheMaxSize;
+
+    @Value("${internal.auth.secret:${jwt.secret}}")
+    private String internalAuthSecret;
+
+    @Value("${internal.auth.trusted-headers:true}")
+    private boolean trustInternalClaims;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Bean
-    public JwtAuthenticationConverter jwtAuthenticationConverter() {
+    public Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter() {
         // Bộ chuyển đổi này sẽ lấy các quyền (authorities) từ JWT
         JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
 
@@ -37,14 +57,14 @@ public class SecurityConfig {
         // 2. Xóa tiền tố "SCOPE_" mặc định.
         grantedAuthoritiesConverter.setAuthorityPrefix("");
 
-        // Tạo bộ chuyển đổi JWT chính
-        JwtAuthenticationConverter jwtConverter = new JwtAuthenticationConverter();
-        jwtConverter.setJwtGrantedAuthoritiesConverter(grantedAuthoritiesConverter);
-        return jwtConverter;
+        // Build the typed principal once per request, services read it via UserContextHolder
+        return jwt -> new CurrentUserAuthenticationToken(jwt, grantedAuthoritiesConverter.convert(jwt));
     }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        InternalClaimsAuthenticationFilter internalClaimsFilter = new InternalClaimsAuthenticationFilter(internalAuthSecret);
+
         http
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
@@ -56,11 +76,17 @@ public class SecurityConfig {
                         .anyRequest().authenticated()
                 )
                 .oauth2ResourceServer(oauth2 -> oauth2
+                        .bearerTokenResolver(internalClaimsFilter.bearerTokenResolver())
                         .jwt(jwt -> jwt
                                 .decoder(jwtDecoder())
                                 .jwtAuthenticationConverter(jwtAuthenticationConverter())
                         )
                 );
+
+        // Requests from the gateway carry pre-verified claims, skip decoding the JWT again
+        if (trustInternalClaims) {
+            http.addFilterBefore(internalClaimsFilter, BearerTokenAuthenticationFilter.class);
+        }
         return http.build();
     }
 
@@ -82,8 +108,9 @@ public class SecurityConfig {
     @Bean
     public JwtDecoder jwtDecoder() {
         SecretKeySpec secretKey = new SecretKeySpec(jwtSecret.getBytes(), "HmacSHA256");
-        return NimbusJwtDecoder.withSecretKey(secretKey)
+        JwtDecoder nimbusDecoder = NimbusJwtDecoder.withSecretKey(secretKey)
                 .macAlgorithm(org.springframework.security.oauth2.jose.jws.MacAlgorithm.HS256)
                 .build();
+        return new CachingJwtDecoder(nimbusDecoder, jwtCacheMaxSize, meterRegistry);
     }
 }
\ No newline at end of file
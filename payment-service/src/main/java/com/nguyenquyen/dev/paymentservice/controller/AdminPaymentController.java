@@ -1,6 +1,7 @@
 package com.nguyenquyen.dev.paymentservice.controller;
 
 
+import com.nguyenquyen.dev.paymentservice.client.DataServiceClient;
 import com.nguyenquyen.dev.paymentservice.dto.response.PaymentStatsResponse;
 import com.nguyenquyen.dev.paymentservice.entity.ProviderRevenue;
 import com.nguyenquyen.dev.paymentservice.entity.Refund;
@@ -38,6 +39,9 @@ public class AdminPaymentController {
     @Autowired
     private ProviderRevenueService providerRevenueService;
 
+    @Autowired
+    private DataServiceClient dataServiceClient;
+
     @GetMapping("/stats")
     public ResponseEntity<?> getPaymentStats() {
         try {
@@ -155,4 +159,16 @@ public class AdminPaymentController {
                     .body(Map.of("message", "Failed to calculate revenue", "error", e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    @DeleteMapping("/cache/datasets/{datasetId}")
+    public ResponseEntity<?> invalidateDatasetCache(@PathVariable Long datasetId) {
+        dataServiceClient.invalidateDataset(datasetId);
+        return ResponseEntity.ok(Map.of("message", "Dataset cache entry invalidated"));
+    }
+
+    @DeleteMapping("/cache/datasets")
+    public ResponseEntity<?> invalidateAllDatasetCache() {
+        dataServiceClient.invalidateAllDatasets();
+        return ResponseEntity.ok(Map.of("message", "Dataset cache cleared"));
+    }
+}
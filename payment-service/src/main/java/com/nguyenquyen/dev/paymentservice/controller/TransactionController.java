@@ -11,8 +11,12 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -22,13 +26,25 @@ public class TransactionController {
     private TransactionService transactionService;
 
     @PostMapping
-    public ResponseEntity<?> createTransaction(@Valid @RequestBody CreateTransactionRequest request) {
+    public CompletableFuture<ResponseEntity<?>> createTransaction(@Valid @RequestBody CreateTransactionRequest request) {
         try {
-            TransactionResponse response = transactionService.createTransaction(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            return transactionService.createTransaction(request)
+                    .<ResponseEntity<?>>thenApply(response -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                            .location(URI.create("/payment/api/transactions/ref/" + response.getTransactionId() + "/status"))
+                            .body(response))
+                    .exceptionally(this::transactionFailed);
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(Map.of("message", "Transaction failed", "error", e.getMessage()));
+            return CompletableFuture.completedFuture(transactionFailed(e));
+        }
+    }
+
+    @GetMapping("/ref/{transactionId}/status")
+    public ResponseEntity<?> getTransactionStatus(@PathVariable String transactionId) {
+        try {
+            return ResponseEntity.ok(transactionService.getTransactionStatus(transactionId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", "Transaction not found", "error", e.getMessage()));
         }
     }
 
@@ -88,4 +104,17 @@ public class TransactionController {
                     .body(Map.of("message", "Transaction not found", "error", e.getMessage()));
         }
     }
+
+    private ResponseEntity<?> transactionFailed(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+
+        // The checkout pipeline is saturated, ask the client to retry later
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("message", "Transaction failed", "error", "Payment service is busy, please retry"));
+        }
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", "Transaction failed", "error", String.valueOf(cause.getMessage())));
+    }
 }
@@ -0,0 +1,79 @@
+package com.nguyenquyen.dev.paymentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Access grant owed to a consumer for a completed transaction.
+ * Written in the same database transaction as the COMPLETED status and
+ * delivered to Data Service by AccessGrantRelay.
+ */
+@Entity
+@Table(name = "access_grant_outbox", indexes = {
+        @Index(name = "idx_outbox_status_next_attempt", columnList = "status, nextAttemptAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccessGrantOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 100)
+    private String transactionId; // Idempotency key on the Data Service side
+
+    @Column(nullable = false)
+    private Long datasetId;
+
+    @Column(nullable = false)
+    private Long consumerId;
+
+    @Column(length = 100)
+    private String consumerEmail;
+
+    @Column(length = 200)
+    private String consumerName;
+
+    // PURCHASE, SUBSCRIPTION, API_ACCESS
+    @Column(nullable = false, length = 50)
+    private String transactionType;
+
+    @Column
+    private Integer subscriptionDays;
+
+    @Column
+    private Integer apiCallsLimit;
+
+    // Status: PENDING, SENT, FAILED
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column
+    private LocalDateTime sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
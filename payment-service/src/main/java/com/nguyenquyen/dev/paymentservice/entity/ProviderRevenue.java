@@ -7,7 +7,9 @@ import org.springframework.data.annotation.LastModifiedDate;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 @Entity
-@Table(name = "provider_revenues")
+@Table(name = "provider_revenues", uniqueConstraints = {
+        @UniqueConstraint(name = "unique_provider_period", columnNames = {"providerId", "year", "month"})
+})
 @Getter
 @Setter
 @NoArgsConstructor
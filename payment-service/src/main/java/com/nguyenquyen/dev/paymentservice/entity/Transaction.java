@@ -7,7 +7,9 @@ import org.springframework.data.annotation.LastModifiedDate;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_provider_dataset_created", columnList = "providerId, datasetId, createdAt")
+})
 @Getter
 @Setter
 @NoArgsConstructor
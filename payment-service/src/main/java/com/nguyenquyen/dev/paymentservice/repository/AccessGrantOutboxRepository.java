@@ -0,0 +1,19 @@
+package com.nguyenquyen.dev.paymentservice.repository;
+
+import com.nguyenquyen.dev.paymentservice.entity.AccessGrantOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface AccessGrantOutboxRepository extends JpaRepository<AccessGrantOutbox, Long> {
+
+    @Query("SELECT o FROM AccessGrantOutbox o WHERE o.status = 'PENDING' " +
+            "AND o.nextAttemptAt <= :now ORDER BY o.nextAttemptAt, o.id")
+    List<AccessGrantOutbox> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    Long countByStatus(String status);
+}
@@ -2,10 +2,12 @@ package com.nguyenquyen.dev.paymentservice.repository;
 
 import com.nguyenquyen.dev.paymentservice.entity.ProviderRevenue;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 public interface ProviderRevenueRepository extends JpaRepository<ProviderRevenue, Long> {
@@ -26,4 +28,76 @@ public interface ProviderRevenueRepository extends JpaRepository<ProviderRevenue
     @Query("SELECT SUM(pr.totalRevenue) FROM ProviderRevenue pr " +
             "WHERE pr.providerId = :providerId AND pr.paymentStatus = 'PAID'")
     BigDecimal sumPaidRevenue(@Param("providerId") Long providerId);
+
+    // Adds one completed transaction to the provider's running totals, creating the month row if needed
+    @Modifying
+    @Query(value = "INSERT INTO provider_revenues (provider_id, provider_name, provider_email, year, month, " +
+            "total_revenue, platform_fee, net_revenue, total_transactions, total_datasets, payment_status, " +
+            "created_at, updated_at) " +
+            "VALUES (:providerId, :providerName, '', :year, :month, :amount, :platformFee, :netRevenue, 1, " +
+            ":newDatasets, 'PENDING', NOW(), NOW()) " +
+            "ON DUPLICATE KEY UPDATE total_revenue = total_revenue + VALUES(total_revenue), " +
+            "platform_fee = platform_fee + VALUES(platform_fee), " +
+            "net_revenue = net_revenue + VALUES(net_revenue), " +
+            "total_transactions = total_transactions + 1, " +
+            "total_datasets = total_datasets + VALUES(total_datasets), " +
+            "updated_at = NOW()", nativeQuery = true)
+    int addTransaction(@Param("providerId") Long providerId,
+                       @Param("providerName") String providerName,
+                       @Param("year") Integer year,
+                       @Param("month") Integer month,
+                       @Param("amount") BigDecimal amount,
+                       @Param("platformFee") BigDecimal platformFee,
+                       @Param("netRevenue") BigDecimal netRevenue,
+                       @Param("newDatasets") int newDatasets);
+
+    @Modifying
+    @Query(value = "UPDATE provider_revenues SET total_revenue = total_revenue - :amount, " +
+            "platform_fee = platform_fee - :platformFee, " +
+            "net_revenue = net_revenue - :netRevenue, " +
+            "total_transactions = GREATEST(total_transactions - 1, 0), " +
+            "total_datasets = GREATEST(total_datasets - :removedDatasets, 0), " +
+            "updated_at = NOW() " +
+            "WHERE provider_id = :providerId AND year = :year AND month = :month", nativeQuery = true)
+    int removeTransaction(@Param("providerId") Long providerId,
+                          @Param("year") Integer year,
+                          @Param("month") Integer month,
+                          @Param("amount") BigDecimal amount,
+                          @Param("platformFee") BigDecimal platformFee,
+                          @Param("netRevenue") BigDecimal netRevenue,
+                          @Param("removedDatasets") int removedDatasets);
+
+    // Recomputes a month's totals from COMPLETED transactions in the same statement. The
+    // SELECT takes shared locks on the rows it reads, so a completion still in flight is
+    // waited for and counted, and one that commits afterwards adds its increment on top.
+    @Modifying
+    @Query(value = "INSERT INTO provider_revenues (provider_id, provider_name, provider_email, year, month, " +
+            "total_revenue, platform_fee, net_revenue, total_transactions, total_datasets, payment_status, " +
+            "created_at, updated_at) " +
+            "SELECT t.provider_id, MAX(t.provider_name), '', :year, :month, SUM(t.amount), SUM(t.platform_fee), " +
+            "SUM(t.provider_revenue), COUNT(*), COUNT(DISTINCT t.dataset_id), 'PENDING', NOW(), NOW() " +
+            "FROM transactions t WHERE t.status = 'COMPLETED' AND t.created_at BETWEEN :startDate AND :endDate " +
+            "GROUP BY t.provider_id " +
+            "ON DUPLICATE KEY UPDATE total_revenue = VALUES(total_revenue), " +
+            "platform_fee = VALUES(platform_fee), " +
+            "net_revenue = VALUES(net_revenue), " +
+            "total_transactions = VALUES(total_transactions), " +
+            "total_datasets = VALUES(total_datasets), " +
+            "updated_at = NOW()", nativeQuery = true)
+    int reconcileTotals(@Param("year") Integer year,
+                        @Param("month") Integer month,
+                        @Param("startDate") LocalDateTime startDate,
+                        @Param("endDate") LocalDateTime endDate);
+
+    // Zeroes provider-months that no longer have any COMPLETED transaction, e.g. all refunded
+    @Modifying
+    @Query(value = "UPDATE provider_revenues pr SET total_revenue = 0, platform_fee = 0, net_revenue = 0, " +
+            "total_transactions = 0, total_datasets = 0, updated_at = NOW() " +
+            "WHERE pr.year = :year AND pr.month = :month AND NOT EXISTS (" +
+            "SELECT 1 FROM transactions t WHERE t.provider_id = pr.provider_id AND t.status = 'COMPLETED' " +
+            "AND t.created_at BETWEEN :startDate AND :endDate)", nativeQuery = true)
+    int zeroTotalsWithoutCompleted(@Param("year") Integer year,
+                                   @Param("month") Integer month,
+                                   @Param("startDate") LocalDateTime startDate,
+                                   @Param("endDate") LocalDateTime endDate);
 }
\ No newline at end of file
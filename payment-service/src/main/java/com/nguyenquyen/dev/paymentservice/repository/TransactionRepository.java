@@ -1,7 +1,10 @@
 package com.nguyenquyen.dev.paymentservice.repository;
 
 import com.nguyenquyen.dev.paymentservice.entity.Transaction;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -19,6 +22,13 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
 
     List<Transaction> findByStatus(String status);
 
+    List<Transaction> findByStatusAndCreatedAtBefore(String status, LocalDateTime before, Pageable pageable);
+
+    // Serializes completion between the payment callback and the pending sweep
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Transaction t WHERE t.id = :id")
+    Optional<Transaction> findByIdForUpdate(@Param("id") Long id);
+
     List<Transaction> findByDatasetId(Long datasetId);
 
     @Query("SELECT t FROM Transaction t WHERE t.consumerId = :userId OR t.providerId = :userId")
@@ -30,6 +40,15 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
                                                @Param("startDate") LocalDateTime startDate,
                                                @Param("endDate") LocalDateTime endDate);
 
+    @Query("SELECT COUNT(t) > 0 FROM Transaction t WHERE t.providerId = :providerId " +
+            "AND t.datasetId = :datasetId AND t.status = 'COMPLETED' AND t.id <> :excludedId " +
+            "AND t.createdAt BETWEEN :startDate AND :endDate")
+    boolean existsOtherCompletedForDataset(@Param("providerId") Long providerId,
+                                           @Param("datasetId") Long datasetId,
+                                           @Param("excludedId") Long excludedId,
+                                           @Param("startDate") LocalDateTime startDate,
+                                           @Param("endDate") LocalDateTime endDate);
+
     @Query("SELECT SUM(t.amount) FROM Transaction t WHERE t.status = 'COMPLETED'")
     BigDecimal sumTotalRevenue();
 
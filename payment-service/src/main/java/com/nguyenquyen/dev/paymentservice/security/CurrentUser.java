@@ -0,0 +1,39 @@
+package com.nguyenquyen.dev.paymentservice.security;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * The caller of the current request, read from the verified JWT claims once
+ * when the request is authenticated.
+ */
+public record CurrentUser(Long userId, String email, String role, String fullName) {
+
+    public static CurrentUser from(Jwt jwt) {
+        String email = jwt.getClaimAsString("email");
+        String fullName = jwt.getClaimAsString("fullName");
+
+        return new CurrentUser(
+                toLong(jwt.getClaim("userId")),
+                email != null ? email : jwt.getSubject(),
+                jwt.getClaimAsString("role"),
+                fullName != null ? fullName : "Unknown User"
+        );
+    }
+
+    public boolean hasRole(String role) {
+        return role != null && role.equals(this.role);
+    }
+
+    public boolean isAdmin() {
+        return hasRole("ADMIN");
+    }
+
+    private static Long toLong(Object claim) {
+        if (claim instanceof Number) {
+            return ((Number) claim).longValue();
+        } else if (claim instanceof String) {
+            return Long.parseLong((String) claim);
+        }
+        return null;
+    }
+}
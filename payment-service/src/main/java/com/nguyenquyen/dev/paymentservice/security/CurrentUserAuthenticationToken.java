@@ -0,0 +1,40 @@
+package com.nguyenquyen.dev.paymentservice.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Collection;
+
+/**
+ * JwtAuthenticationToken that also carries the CurrentUser built from its claims.
+ * The principal is still the Jwt, so token relaying keeps working unchanged.
+ */
+public class CurrentUserAuthenticationToken extends JwtAuthenticationToken {
+
+    private final CurrentUser currentUser;
+    private final String internalClaims;
+
+    public CurrentUserAuthenticationToken(Jwt jwt, Collection<? extends GrantedAuthority> authorities) {
+        this(jwt, authorities, null);
+    }
+
+    public CurrentUserAuthenticationToken(Jwt jwt, Collection<? extends GrantedAuthority> authorities,
+                                          String internalClaims) {
+        super(jwt, authorities, jwt.getSubject());
+        this.currentUser = CurrentUser.from(jwt);
+        this.internalClaims = internalClaims;
+    }
+
+    public CurrentUser getCurrentUser() {
+        return currentUser;
+    }
+
+    /**
+     * The signed gateway header this request was authenticated with, or null when
+     * it was authenticated from the bearer token. Relayed on service-to-service calls.
+     */
+    public String getInternalClaims() {
+        return internalClaims;
+    }
+}
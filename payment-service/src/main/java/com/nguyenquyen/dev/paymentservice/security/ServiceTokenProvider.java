@@ -0,0 +1,58 @@
+package com.nguyenquyen.dev.paymentservice.security;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Mints the token Payment Service uses for calls that run outside any user
+ * request (e.g. the outbox relay). Signed with the shared jwt.secret and
+ * carrying role SERVICE; reused until shortly before it expires.
+ */
+@Component
+public class ServiceTokenProvider {
+
+    private static final long TOKEN_TTL_MINUTES = 15;
+    private static final long REFRESH_BEFORE_SECONDS = 60;
+
+    private final JwtEncoder encoder;
+
+    @Value("${spring.application.name}")
+    private String serviceName;
+
+    private String token;
+    private Instant expiresAt = Instant.EPOCH;
+
+    public ServiceTokenProvider(@Value("${jwt.secret}") String jwtSecret) {
+        SecretKeySpec secretKey = new SecretKeySpec(jwtSecret.getBytes(), "HmacSHA256");
+        this.encoder = new NimbusJwtEncoder(new ImmutableSecret<>(secretKey));
+    }
+
+    public synchronized String getToken() {
+        Instant now = Instant.now();
+        if (token == null || now.isAfter(expiresAt.minusSeconds(REFRESH_BEFORE_SECONDS))) {
+            expiresAt = now.plus(TOKEN_TTL_MINUTES, ChronoUnit.MINUTES);
+
+            JwtClaimsSet claims = JwtClaimsSet.builder()
+                    .subject(serviceName)
+                    .issuedAt(now)
+                    .expiresAt(expiresAt)
+                    .claim("role", "SERVICE")
+                    .build();
+            JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).build();
+
+            token = encoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+        }
+        return token;
+    }
+}
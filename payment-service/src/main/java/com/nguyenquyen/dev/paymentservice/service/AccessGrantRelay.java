@@ -0,0 +1,102 @@
+package com.nguyenquyen.dev.paymentservice.service;
+
+import com.nguyenquyen.dev.paymentservice.client.AccessGrantResult;
+import com.nguyenquyen.dev.paymentservice.client.DataServiceClient;
+import com.nguyenquyen.dev.paymentservice.entity.AccessGrantOutbox;
+import com.nguyenquyen.dev.paymentservice.repository.AccessGrantOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the access grant outbox to Data Service in batches.
+ * Failed deliveries are retried with exponential backoff until max-attempts;
+ * Data Service is idempotent on transactionId, so redelivery is harmless.
+ */
+@Service
+public class AccessGrantRelay {
+
+    @Autowired
+    private AccessGrantOutboxRepository outboxRepository;
+
+    @Autowired
+    private DataServiceClient dataServiceClient;
+
+    @Value("${payment.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${payment.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${payment.outbox.base-backoff-ms:1000}")
+    private long baseBackoffMs;
+
+    @Value("${payment.outbox.max-backoff-ms:600000}")
+    private long maxBackoffMs;
+
+    @Scheduled(fixedDelayString = "${payment.outbox.poll-interval-ms:1000}")
+    public void relay() {
+        List<AccessGrantOutbox> due;
+        do {
+            due = outboxRepository.findDue(LocalDateTime.now(), PageRequest.of(0, batchSize));
+            if (due.isEmpty()) {
+                return;
+            }
+        } while (deliver(due) && due.size() == batchSize);
+    }
+
+    // Returns false when the whole batch failed, so the caller stops draining
+    private boolean deliver(List<AccessGrantOutbox> batch) {
+        List<AccessGrantResult> results;
+        try {
+            results = dataServiceClient.grantDatasetAccessBatch(batch);
+        } catch (Exception e) {
+            System.err.println("Access grant relay: batch of " + batch.size() + " failed: " + e.getMessage());
+            batch.forEach(grant -> scheduleRetry(grant, e.getMessage()));
+            outboxRepository.saveAll(batch);
+            return false;
+        }
+
+        Map<String, AccessGrantResult> byTransactionId = new HashMap<>();
+        results.forEach(result -> byTransactionId.put(result.getTransactionId(), result));
+
+        LocalDateTime now = LocalDateTime.now();
+        for (AccessGrantOutbox grant : batch) {
+            AccessGrantResult result = byTransactionId.get(grant.getTransactionId());
+            if (result == null) {
+                scheduleRetry(grant, "No result returned for transaction");
+            } else if ("GRANTED".equals(result.getStatus()) || "DUPLICATE".equals(result.getStatus())) {
+                grant.setStatus("SENT");
+                grant.setSentAt(now);
+                grant.setLastError(null);
+            } else {
+                scheduleRetry(grant, result.getMessage());
+            }
+        }
+        outboxRepository.saveAll(batch);
+        return true;
+    }
+
+    private void scheduleRetry(AccessGrantOutbox grant, String error) {
+        int attempts = grant.getAttempts() + 1;
+        grant.setAttempts(attempts);
+        grant.setLastError(error);
+
+        if (attempts >= maxAttempts) {
+            grant.setStatus("FAILED");
+            System.err.println("Access grant for transaction " + grant.getTransactionId() +
+                    " failed after " + attempts + " attempts: " + error);
+            return;
+        }
+
+        long backoff = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempts - 1, 20));
+        grant.setNextAttemptAt(LocalDateTime.now().plusNanos(backoff * 1_000_000));
+    }
+}
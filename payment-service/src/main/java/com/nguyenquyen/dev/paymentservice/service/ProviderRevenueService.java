@@ -7,15 +7,14 @@ import com.nguyenquyen.dev.paymentservice.repository.ProviderRevenueRepository;
 import com.nguyenquyen.dev.paymentservice.repository.TransactionRepository;
 import com.nguyenquyen.dev.paymentservice.security.UserContextHolder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
-
-import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
 import java.util.stream.Collectors;
 @Service
 public class ProviderRevenueService {
@@ -26,66 +25,66 @@ public class ProviderRevenueService {
     @Autowired
     private TransactionRepository transactionRepository;
 
+    /**
+     * Adds a completed transaction to its provider's running totals for the
+     * month it was created in. Must run in the transaction that marks it COMPLETED.
+     */
+    public void recordCompletion(Transaction transaction) {
+        YearMonth period = YearMonth.from(transaction.getCreatedAt());
+        int newDatasets = hasOtherCompleted(transaction, period) ? 0 : 1;
+
+        revenueRepository.addTransaction(
+                transaction.getProviderId(),
+                transaction.getProviderName(),
+                period.getYear(),
+                period.getMonthValue(),
+                transaction.getAmount(),
+                transaction.getPlatformFee(),
+                transaction.getProviderRevenue(),
+                newDatasets
+        );
+    }
+
+    /**
+     * Removes a refunded transaction from its provider's running totals.
+     * Must run in the transaction that moves it from COMPLETED to REFUNDED.
+     */
+    public void recordRefund(Transaction transaction) {
+        YearMonth period = YearMonth.from(transaction.getCreatedAt());
+        int removedDatasets = hasOtherCompleted(transaction, period) ? 0 : 1;
+
+        revenueRepository.removeTransaction(
+                transaction.getProviderId(),
+                period.getYear(),
+                period.getMonthValue(),
+                transaction.getAmount(),
+                transaction.getPlatformFee(),
+                transaction.getProviderRevenue(),
+                removedDatasets
+        );
+    }
+
+    @Scheduled(cron = "${payment.revenue.reconcile-cron:0 30 2 * * *}")
+    @Transactional
+    public void scheduledReconcile() {
+        YearMonth current = YearMonth.now();
+        YearMonth previous = current.minusMonths(1);
+        calculateMonthlyRevenue(previous.getYear(), previous.getMonthValue());
+        calculateMonthlyRevenue(current.getYear(), current.getMonthValue());
+    }
+
+    /**
+     * Reconciles a month's running totals against the transactions table,
+     * correcting any drift in the incremental updates. The totals are computed
+     * inside the upsert, so no completion committed meanwhile is overwritten.
+     */
+    @Transactional
     public void calculateMonthlyRevenue(Integer year, Integer month) {
-        // Get all completed transactions for the month
         LocalDateTime startDate = LocalDateTime.of(year, month, 1, 0, 0);
         LocalDateTime endDate = startDate.plusMonths(1).minusSeconds(1);
 
-        List<Transaction> transactions = transactionRepository
-                .findByStatusAndDateRange("COMPLETED", startDate, endDate);
-
-        // Group by provider
-        Map<Long, List<Transaction>> transactionsByProvider = transactions.stream()
-                .collect(Collectors.groupingBy(Transaction::getProviderId));
-
-        transactionsByProvider.forEach((providerId, providerTransactions) -> {
-            Transaction firstTransaction = providerTransactions.get(0);
-
-            BigDecimal totalRevenue = providerTransactions.stream()
-                    .map(Transaction::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            BigDecimal platformFee = providerTransactions.stream()
-                    .map(Transaction::getPlatformFee)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            BigDecimal netRevenue = providerTransactions.stream()
-                    .map(Transaction::getProviderRevenue)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            Set<Long> datasetIds = providerTransactions.stream()
-                    .map(Transaction::getDatasetId)
-                    .collect(Collectors.toSet());
-
-            Optional<ProviderRevenue> existingRevenue = revenueRepository
-                    .findByProviderIdAndYearAndMonth(providerId, year, month);
-
-            ProviderRevenue revenue;
-            if (existingRevenue.isPresent()) {
-                revenue = existingRevenue.get();
-                revenue.setTotalRevenue(totalRevenue);
-                revenue.setPlatformFee(platformFee);
-                revenue.setNetRevenue(netRevenue);
-                revenue.setTotalTransactions(providerTransactions.size());
-                revenue.setTotalDatasets(datasetIds.size());
-            } else {
-                revenue = ProviderRevenue.builder()
-                        .providerId(providerId)
-                        .providerName(firstTransaction.getProviderName())
-                        .providerEmail("") // Will be fetched from Identity Service
-                        .year(year)
-                        .month(month)
-                        .totalRevenue(totalRevenue)
-                        .platformFee(platformFee)
-                        .netRevenue(netRevenue)
-                        .totalTransactions(providerTransactions.size())
-                        .totalDatasets(datasetIds.size())
-                        .paymentStatus("PENDING")
-                        .build();
-            }
-
-            revenueRepository.save(revenue);
-        });
+        revenueRepository.reconcileTotals(year, month, startDate, endDate);
+        revenueRepository.zeroTotalsWithoutCompleted(year, month, startDate, endDate);
     }
 
     public List<ProviderRevenueResponse> getMyRevenue() {
@@ -106,6 +105,17 @@ public class ProviderRevenueService {
         return mapToResponse(revenue);
     }
 
+    // Whether the provider sold the same dataset in another completed transaction that month
+    private boolean hasOtherCompleted(Transaction transaction, YearMonth period) {
+        return transactionRepository.existsOtherCompletedForDataset(
+                transaction.getProviderId(),
+                transaction.getDatasetId(),
+                transaction.getId(),
+                period.atDay(1).atStartOfDay(),
+                period.atEndOfMonth().atTime(23, 59, 59)
+        );
+    }
+
     public BigDecimal getTotalEarnings() {
         Long providerId = UserContextHolder.getCurrentUserId();
         BigDecimal total = revenueRepository.sumPaidRevenue(providerId);
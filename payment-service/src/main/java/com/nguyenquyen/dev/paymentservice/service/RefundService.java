@@ -9,6 +9,7 @@ import com.nguyenquyen.dev.paymentservice.repository.TransactionRepository;
 import com.nguyenquyen.dev.paymentservice.security.UserContextHolder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -23,6 +24,12 @@ public class RefundService {
     @Autowired
     private TransactionRepository transactionRepository;
 
+    @Autowired
+    private ProviderRevenueService revenueService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     public RefundResponse createRefundRequest(RefundRequest request) {
         Transaction transaction = transactionRepository.findById(request.getTransactionId())
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
@@ -93,16 +100,22 @@ public class RefundService {
             refund.setStatus("COMPLETED");
             refund.setCompletedAt(LocalDateTime.now());
             refund.setPaymentGatewayRefundId("re_" + UUID.randomUUID().toString().substring(0, 24));
-
-            // Update transaction
-            Transaction transaction = refund.getTransaction();
-            transaction.setStatus("REFUNDED");
-            transactionRepository.save(transaction);
         }
 
-        refund = refundRepository.save(refund);
-
-        return mapToResponse(refund);
+        // Transaction status, provider revenue and refund are written together
+        Refund saved = transactionTemplate.execute(status -> {
+            if (refundSuccess) {
+                Transaction transaction = refund.getTransaction();
+                if ("COMPLETED".equals(transaction.getStatus())) {
+                    revenueService.recordRefund(transaction);
+                }
+                transaction.setStatus("REFUNDED");
+                transactionRepository.save(transaction);
+            }
+            return refundRepository.save(refund);
+        });
+
+        return mapToResponse(saved);
     }
 
     public RefundResponse rejectRefund(Long id, String reason) {
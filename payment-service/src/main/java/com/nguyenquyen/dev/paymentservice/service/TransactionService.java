@@ -5,18 +5,35 @@ import com.nguyenquyen.dev.paymentservice.client.DataServiceClient;
 import com.nguyenquyen.dev.paymentservice.client.DatasetInfo;
 import com.nguyenquyen.dev.paymentservice.dto.request.CreateTransactionRequest;
 import com.nguyenquyen.dev.paymentservice.dto.response.TransactionResponse;
+import com.nguyenquyen.dev.paymentservice.entity.AccessGrantOutbox;
 import com.nguyenquyen.dev.paymentservice.entity.Transaction;
+import com.nguyenquyen.dev.paymentservice.repository.AccessGrantOutboxRepository;
 import com.nguyenquyen.dev.paymentservice.repository.TransactionRepository;
+import com.nguyenquyen.dev.paymentservice.security.CurrentUser;
 import com.nguyenquyen.dev.paymentservice.security.UserContextHolder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,34 +45,97 @@ public class TransactionService {
     @Autowired
     private DataServiceClient dataServiceClient;
 
+    @Autowired
+    private AccessGrantOutboxRepository outboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProviderRevenueService revenueService;
+
+    @Autowired
+    @Qualifier("paymentExecutor")
+    private Executor paymentExecutor;
+
     @Value("${payment.platform.commission-rate}")
     private Double commissionRate;
 
     @Value("${payment.provider.revenue-share}")
     private Double revenueShare;
 
-    public TransactionResponse createTransaction(CreateTransactionRequest request) {
+    @Value("${payment.pending-sweep.min-age-ms:300000}")
+    private long pendingMinAgeMs;
+
+    @Value("${payment.pending-sweep.batch-size:100}")
+    private int pendingBatchSize;
+
+    /**
+     * Accepts a checkout without holding the request thread: the dataset lookup
+     * is non-blocking, the PENDING row is written on the payment executor, and
+     * the returned future completes as soon as it is persisted. Payment and
+     * access granting continue in the background; clients poll getTransactionStatus.
+     */
+    public CompletableFuture<TransactionResponse> createTransaction(CreateTransactionRequest request) {
         // Get current user info
-        Long consumerId = UserContextHolder.getCurrentUserId();
-        String consumerEmail = UserContextHolder.getCurrentUserEmail();
-        String consumerName = UserContextHolder.getCurrentUserFullName();
+        CurrentUser currentUser = UserContextHolder.requireCurrent();
+        Long consumerId = currentUser.userId();
+        String consumerEmail = currentUser.email();
+        String consumerName = currentUser.fullName();
 
         if (consumerId == null) {
             throw new RuntimeException("User not authenticated");
         }
 
+        // Later stages run on pool threads but keep this user's security context
+        Executor executor = new DelegatingSecurityContextExecutor(
+                paymentExecutor, SecurityContextHolder.getContext());
+
         // Get dataset info from Data Service
-        DatasetInfo dataset;
-        try {
-            dataset = dataServiceClient.getDatasetById(request.getDatasetId());
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to fetch dataset info: " + e.getMessage());
+        return dataServiceClient.fetchDatasetById(request.getDatasetId())
+                .exceptionally(e -> {
+                    throw new RuntimeException("Failed to fetch dataset info: " + e.getMessage());
+                })
+                .thenApplyAsync(dataset -> {
+                    if (dataset == null) {
+                        throw new RuntimeException("Dataset not found");
+                    }
+
+                    Transaction transaction = acceptTransaction(request, dataset,
+                            consumerId, consumerName, consumerEmail);
+
+                    processTransactionAsync(transaction);
+
+                    return mapToResponse(transaction);
+                }, executor);
+    }
+
+    public Map<String, Object> getTransactionStatus(String transactionId) {
+        Transaction transaction = transactionRepository.findByTransactionId(transactionId)
+                .orElseThrow(() -> new RuntimeException("Transaction not found"));
+
+        Long currentUserId = UserContextHolder.getCurrentUserId();
+        if (currentUserId == null) {
+            throw new RuntimeException("User not authenticated");
         }
 
-        if (dataset == null) {
-            throw new RuntimeException("Dataset not found");
+        if (!transaction.getConsumerId().equals(currentUserId) &&
+                !transaction.getProviderId().equals(currentUserId) &&
+                !UserContextHolder.isAdmin()) {
+            throw new RuntimeException("Access denied");
         }
 
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("id", transaction.getId());
+        status.put("transactionId", transaction.getTransactionId());
+        status.put("status", transaction.getStatus());
+        status.put("createdAt", transaction.getCreatedAt());
+        status.put("completedAt", transaction.getCompletedAt());
+        return status;
+    }
+
+    private Transaction acceptTransaction(CreateTransactionRequest request, DatasetInfo dataset,
+                                          Long consumerId, String consumerName, String consumerEmail) {
         // Calculate fees
         BigDecimal amount = request.getAmount();
         BigDecimal platformFee = amount.multiply(BigDecimal.valueOf(commissionRate))
@@ -81,6 +161,7 @@ public class TransactionService {
                 .providerRevenue(providerRevenue)
                 .currency("USD")
                 .paymentMethod(request.getPaymentMethod())
+                .paymentGatewayId(generatePaymentIntentId())
                 .status("PENDING")
                 .subscriptionDays(request.getSubscriptionDays())
                 .apiCallsLimit(request.getApiCallsLimit())
@@ -92,37 +173,108 @@ public class TransactionService {
             transaction.setSubscriptionEndDate(LocalDateTime.now().plusDays(request.getSubscriptionDays()));
         }
 
-        transaction = transactionRepository.save(transaction);
+        return transactionRepository.save(transaction);
+    }
 
-        // Process payment (mock implementation)
-        boolean paymentSuccess = processPayment(transaction, request.getPaymentMethod());
+    /**
+     * Charges the transaction and completes it on the thread that finishes the
+     * payment, so no executor can reject the step after the money moved. Only a
+     * failed payment marks it FAILED; if completion itself fails the row stays
+     * PENDING and resumePendingTransactions picks it up.
+     */
+    private void processTransactionAsync(Transaction transaction) {
+        Long id = transaction.getId();
+        processPayment(transaction.getPaymentGatewayId(), transaction.getPaymentMethod())
+                .whenComplete((paymentSuccess, e) -> {
+                    if (e != null || !Boolean.TRUE.equals(paymentSuccess)) {
+                        System.err.println("Payment failed for transaction " + id
+                                + (e != null ? ": " + e.getMessage() : ""));
+                        markFailed(id);
+                        return;
+                    }
+
+                    try {
+                        completeTransaction(id);
+                    } catch (Exception completionError) {
+                        System.err.println("Failed to complete paid transaction " + id
+                                + ", left PENDING for the sweep: " + completionError.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Resumes PENDING transactions older than min-age, e.g. left behind by a
+     * restart or a failed completion. The payment call is idempotent on the
+     * payment intent id, so a transaction that was already charged is not
+     * charged again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${payment.pending-sweep.interval-ms:60000}",
+            fixedDelayString = "${payment.pending-sweep.interval-ms:60000}")
+    public void resumePendingTransactions() {
+        LocalDateTime before = LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(pendingMinAgeMs));
+        List<Transaction> pending;
+        try {
+            pending = transactionRepository.findByStatusAndCreatedAtBefore("PENDING", before,
+                    PageRequest.of(0, pendingBatchSize, Sort.by("createdAt")));
+        } catch (Exception e) {
+            System.err.println("Failed to load pending transactions: " + e.getMessage());
+            return;
+        }
+
+        if (!pending.isEmpty()) {
+            System.out.println("Resuming " + pending.size() + " pending transactions");
+        }
+        pending.forEach(this::processTransactionAsync);
+    }
+
+    /**
+     * Marks a paid transaction COMPLETED, adds it to the provider's revenue and
+     * records the access grant it owes in one database transaction;
+     * AccessGrantRelay delivers the grant afterwards. Does nothing if the
+     * transaction already left PENDING.
+     */
+    private void completeTransaction(Long id) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Transaction transaction = transactionRepository.findByIdForUpdate(id)
+                    .orElseThrow(() -> new RuntimeException("Transaction not found"));
+
+            if (!"PENDING".equals(transaction.getStatus())) {
+                return;
+            }
 
-        if (paymentSuccess) {
             transaction.setStatus("COMPLETED");
             transaction.setCompletedAt(LocalDateTime.now());
-            transaction.setPaymentGatewayId("pi_" + UUID.randomUUID().toString().substring(0, 24));
             transactionRepository.save(transaction);
+            revenueService.recordCompletion(transaction);
+
+            outboxRepository.save(AccessGrantOutbox.builder()
+                    .transactionId(transaction.getTransactionId())
+                    .datasetId(transaction.getDatasetId())
+                    .consumerId(transaction.getConsumerId())
+                    .consumerEmail(transaction.getConsumerEmail())
+                    .consumerName(transaction.getConsumerName())
+                    .transactionType(transaction.getTransactionType())
+                    .subscriptionDays(transaction.getSubscriptionDays())
+                    .apiCallsLimit(transaction.getApiCallsLimit())
+                    .status("PENDING")
+                    .attempts(0)
+                    .build());
+        });
+    }
 
-            // Notify Data Service to grant access
-            try {
-                dataServiceClient.grantDatasetAccess(
-                        transaction.getDatasetId(),
-                        transaction.getConsumerId(),
-                        transaction.getTransactionType(),
-                        transaction.getSubscriptionDays(),
-                        transaction.getApiCallsLimit(),
-                        transaction.getTransactionId()
-                );
-            } catch (Exception e) {
-                // Log error but don't fail transaction
-                System.err.println("Warning: Failed to grant dataset access: " + e.getMessage());
-            }
-        } else {
-            transaction.setStatus("FAILED");
-            transactionRepository.save(transaction);
+    private void markFailed(Long id) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    transactionRepository.findByIdForUpdate(id)
+                            .filter(transaction -> "PENDING".equals(transaction.getStatus()))
+                            .ifPresent(transaction -> {
+                                transaction.setStatus("FAILED");
+                                transactionRepository.save(transaction);
+                            }));
+        } catch (Exception e) {
+            System.err.println("Failed to mark transaction " + id + " as FAILED: " + e.getMessage());
         }
-
-        return mapToResponse(transaction);
     }
 
     public List<TransactionResponse> getMyTransactions() {
@@ -194,15 +346,18 @@ public class TransactionService {
         return mapToResponse(transaction);
     }
 
-    private boolean processPayment(Transaction transaction, String paymentMethod) {
+    private CompletableFuture<Boolean> processPayment(String paymentIntentId, String paymentMethod) {
         // Mock payment processing
-        // In production, integrate with Stripe, PayPal, etc.
-        try {
-            Thread.sleep(500); // Simulate processing time
-            return true; // 100% success for mock
-        } catch (InterruptedException e) {
-            return false;
-        }
+        // In production, integrate with Stripe, PayPal, etc. through a non-blocking client,
+        // passing paymentIntentId as the idempotency key so a resumed payment is not charged twice
+        return CompletableFuture.supplyAsync(
+                () -> true, // 100% success for mock
+                CompletableFuture.delayedExecutor(500, TimeUnit.MILLISECONDS) // Simulate processing time
+        );
+    }
+
+    private String generatePaymentIntentId() {
+        return "pi_" + UUID.randomUUID().toString().substring(0, 24);
     }
 
     private String generateTransactionId() {